@@ -0,0 +1,119 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares platform and virtual threads running many requests at once against a local stub server, which answers
+ * each request after a fixed delay without holding a thread meanwhile. Each operation sends a batch of requests and
+ * waits for all of them; the platform pool gets one thread per request in flight.
+ *
+ * Virtual threads need a Java 21 runtime: on an older one the virtual mode falls back to the platform pool, see
+ * {@link ExecutorConfig#virtualThreads(boolean)}. The batches of 10000 requests open as many connections, and the
+ * server runs in the same JVM: the limit of open files must allow twice as many.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutorModeBenchmark {
+
+    private static final byte[] BODY = "{\"version\":\"9.4.0\"}".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // The stub server closes the idle connections beyond 200 by default, which the next batch would then reuse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+    }
+
+    /**
+     * Thread mode of the request executor: "platform" or "virtual".
+     */
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    /**
+     * Number of requests in flight at once.
+     */
+    @Param({"1000", "10000"})
+    public int inFlight;
+
+    /**
+     * Time the server takes to answer a request.
+     */
+    @Param({"50"})
+    public int serverDelayMillis;
+
+    private HttpServer server;
+    private ExecutorService acceptor;
+    private ScheduledExecutorService responder;
+    private HttpTransport transport;
+    private RestClient restClient;
+    private URI serverInfo;
+
+    @Setup
+    public void setUp() throws Exception {
+        acceptor = Executors.newFixedThreadPool(4);
+        responder = Executors.newScheduledThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), inFlight);
+        server.createContext("/", exchange -> responder.schedule(() -> {
+            try {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, BODY.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(BODY);
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, serverDelayMillis, TimeUnit.MILLISECONDS));
+        server.setExecutor(acceptor);
+        server.start();
+
+        ExecutorConfig executorConfig = "virtual".equals(mode) ?
+                new ExecutorConfig().virtualThreads(true) :
+                new ExecutorConfig().maxThreads(inFlight).queueCapacity(inFlight);
+        transport = new ApacheHttpTransport(new ConnectionPoolConfig().maxTotal(inFlight).maxPerRoute(inFlight));
+        URI uri = URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+        restClient = new RestClient(transport, null, uri, false, executorConfig);
+        serverInfo = restClient.buildURI("/rest/api/2/serverInfo");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        restClient.close();
+        transport.close();
+        server.stop(0);
+        responder.shutdownNow();
+        acceptor.shutdownNow();
+    }
+
+    @Benchmark
+    public JsonNode sendBatch() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[inFlight];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = restClient.getAsync(serverInfo);
+        }
+        CompletableFuture.allOf(calls).join();
+        return (JsonNode) calls[calls.length - 1].join();
+    }
+}
@@ -0,0 +1,101 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory allocated to parse a search page: buffered line by line into a String as RestClient used to,
+ * or streamed from the entity into Jackson. Run with the gc profiler, configured in build.gradle, and compare
+ * gc.alloc.rate.norm, the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResponseParsingBenchmark {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Number of issues in the search page.
+     */
+    @Param({"100", "1000"})
+    public int issues;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = mapper.writeValueAsBytes(searchPage(issues));
+    }
+
+    /**
+     * The former path: lines appended to a StringBuilder, copied into a String, then parsed.
+     */
+    @Benchmark
+    public JsonNode lineBuffered() throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        StringBuilder result = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.append(line);
+        }
+        return mapper.readTree(result.toString());
+    }
+
+    /**
+     * The bytes handed to Jackson as a stream, as RestClient now does for successful UTF-8 responses.
+     */
+    @Benchmark
+    public JsonNode streamed() throws IOException {
+        return mapper.readTree(new ByteArrayInputStream(body));
+    }
+
+    private static ObjectNode searchPage(int count) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            description.append("A line of the description of the issue, as long as a real one. ");
+        }
+
+        ObjectNode page = JsonNodeFactory.instance.objectNode();
+        page.put("startAt", 0);
+        page.put("maxResults", count);
+        page.put("total", count);
+        ArrayNode list = page.putArray("issues");
+        for (int i = 0; i < count; i++) {
+            ObjectNode issue = list.addObject();
+            issue.put("id", String.valueOf(10000 + i));
+            issue.put("key", "TEST-" + i);
+            issue.put("self", "http://jira.example.com/rest/api/2/issue/" + (10000 + i));
+            ObjectNode fields = issue.putObject("fields");
+            fields.put("summary", "Summary of issue " + i);
+            fields.put("description", description.toString());
+            fields.putObject("status").put("name", "Open").put("id", "1");
+            fields.putObject("priority").put("name", "Major").put("id", "3");
+            fields.putObject("assignee").put("name", "user" + (i % 50)).put("displayName", "User " + (i % 50));
+            fields.put("created", "2024-01-01T10:00:00.000+0000");
+            fields.put("updated", "2024-01-02T10:00:00.000+0000");
+            ArrayNode labels = fields.putArray("labels");
+            labels.add("backend").add("release-" + (i % 10));
+        }
+        return page;
+    }
+}
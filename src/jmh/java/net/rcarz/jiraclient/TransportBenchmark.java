@@ -0,0 +1,140 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the pooled HTTP/1.1 transport, one connection per request in flight, with the HTTP/2
+ * transport multiplexing the requests over a single h2c connection. Both talk to a local stub server built on the
+ * same HttpCore 5 server, which speaks the one HTTP version under test on plain HTTP and answers after an optional
+ * delay without holding a thread meanwhile. Each operation sends a batch of inFlight requests and waits for all of them, so the requests
+ * per second are the reported operations per second times inFlight.
+ *
+ * Http2Transport needs httpclient5, added to the benchmark classpath in build.gradle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransportBenchmark {
+
+    private static final String BODY = "{\"version\":\"9.4.0\"}";
+
+    /**
+     * Transport under test: "http1" for ApacheHttpTransport, "h2c" for Http2Transport with prior knowledge.
+     */
+    @Param({"http1", "h2c"})
+    public String transport;
+
+    /**
+     * Number of requests in flight at once.
+     */
+    @Param({"16", "256"})
+    public int inFlight;
+
+    /**
+     * Time the server takes to answer a request.
+     */
+    @Param({"0", "20"})
+    public int serverDelayMillis;
+
+    private HttpAsyncServer server;
+    private ScheduledExecutorService responder;
+    private HttpTransport httpTransport;
+    private RestClient restClient;
+    private URI serverInfo;
+
+    @Setup
+    public void setUp() throws Exception {
+        responder = Executors.newScheduledThreadPool(2);
+        server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy("h2c".equals(transport) ?
+                        HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1)
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                            HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+                        return new BasicRequestConsumer<>(DiscardingEntityConsumer::new);
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, Void> message, ResponseTrigger responseTrigger,
+                                       HttpContext context) {
+                        Runnable respond = () -> {
+                            try {
+                                responseTrigger.submitResponse(
+                                        new BasicResponseProducer(200, BODY, ContentType.APPLICATION_JSON), context);
+                            } catch (Exception e) {
+                                // The client went away, the benchmark reports the failed request
+                            }
+                        };
+                        if (serverDelayMillis > 0) {
+                            responder.schedule(respond, serverDelayMillis, TimeUnit.MILLISECONDS);
+                        } else {
+                            respond.run();
+                        }
+                    }
+                })
+                .create();
+        server.start();
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTP)
+                .get(10, TimeUnit.SECONDS);
+        URI uri = URI.create("http://localhost:" + ((InetSocketAddress) endpoint.getAddress()).getPort());
+
+        httpTransport = "h2c".equals(transport) ?
+                new Http2Transport(Http2Transport.Mode.PRIOR_KNOWLEDGE, 1) :
+                new ApacheHttpTransport(new ConnectionPoolConfig().maxTotal(inFlight).maxPerRoute(inFlight));
+        ExecutorConfig executorConfig = new ExecutorConfig().maxThreads(inFlight).queueCapacity(inFlight);
+        restClient = new RestClient(httpTransport, null, uri, false, executorConfig);
+        serverInfo = restClient.buildURI("/rest/api/2/serverInfo");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        restClient.close();
+        httpTransport.close();
+        server.close(CloseMode.IMMEDIATE);
+        responder.shutdownNow();
+    }
+
+    @Benchmark
+    public JsonNode sendBatch() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[inFlight];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = restClient.getAsync(serverInfo);
+        }
+        CompletableFuture.allOf(calls).join();
+        return (JsonNode) calls[calls.length - 1].join();
+    }
+}
@@ -0,0 +1,87 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * An {@link HttpTransport} backed by a blocking Apache HttpClient.
+ */
+public class ApacheHttpTransport implements HttpTransport {
+
+    private final HttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connManager;
+
+    /**
+     * Creates a transport over the given client.
+     *
+     * @param httpClient Underlying HTTP client to use
+     */
+    public ApacheHttpTransport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+        this.connManager = null;
+    }
+
+    /**
+     * Creates a transport over a pooled client, which it owns and closes.
+     *
+     * @param poolConfig Settings of the connection pool
+     */
+    public ApacheHttpTransport(ConnectionPoolConfig poolConfig) {
+        this.connManager = poolConfig.createConnectionManager();
+        this.httpClient = poolConfig.createHttpClient(connManager);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        return httpClient.execute(request, context);
+    }
+
+    /**
+     * Closes the underlying client and its connection pool.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        } else if (httpClient != null) {
+            httpClient.getConnectionManager().shutdown();
+        }
+    }
+
+    /**
+     * Obtains the current state of the connection pool.
+     *
+     * @return a snapshot of the pool metrics, or null when the client does not use a known connection pool
+     */
+    @SuppressWarnings("deprecation")
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        if (connManager != null) {
+            return ConnectionPoolMetrics.of(connManager.getTotalStats());
+        }
+        // Fully qualified, as the deprecation of an import cannot be suppressed
+        if (httpClient instanceof org.apache.http.impl.client.AbstractHttpClient) {
+            Object legacyManager = httpClient.getConnectionManager();
+            if (legacyManager instanceof org.apache.http.impl.conn.PoolingClientConnectionManager) {
+                return ConnectionPoolMetrics.of(
+                        ((org.apache.http.impl.conn.PoolingClientConnectionManager) legacyManager).getTotalStats());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Exposes the http client.
+     *
+     * @return the httpClient property
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+}
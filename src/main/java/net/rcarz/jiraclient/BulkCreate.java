@@ -0,0 +1,264 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the issues of a bulk create in chunks the server accepts, several chunks at a time, and maps the created and
+ * failed issues of each chunk back to their position in the input.
+ *
+ * A chunk that fails as a whole, for example on a network error, fails each of its issues; the other chunks are
+ * still sent. The requests go through the rate limiting of the {@link RestClient}, the parallelism only bounds how
+ * many of them wait for a response at the same time.
+ */
+final class BulkCreate {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCreate.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final RestClient restclient;
+    private final String path;
+    private final List<ObjectNode> issues;
+    private final List<String> names;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Issue.CreateProgressListener progress;
+    private final Runnable onFieldRejection;
+
+    private final Object[] outcomes;
+    private final int chunkCount;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger remainingChunks;
+    private final Set<CompletableFuture<JsonNode>> calls = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Issue.Results> result = new CompletableFuture<>();
+    private int processed = 0;
+    private int failed = 0;
+
+    /**
+     * @param issues Issues to create, each an object with the fields of the issue
+     * @param names Names reported in the results, one per issue
+     * @param onFieldRejection Called when the server rejects fields of an issue, which may mean stale metadata
+     */
+    BulkCreate(RestClient restclient, String path, List<ObjectNode> issues, List<String> names, int chunkSize,
+               int parallelism, Issue.CreateProgressListener progress, Runnable onFieldRejection) {
+        this.restclient = restclient;
+        this.path = path;
+        this.issues = issues;
+        this.names = names;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.progress = progress;
+        this.onFieldRejection = onFieldRejection;
+        this.outcomes = new Object[issues.size()];
+        this.chunkCount = (issues.size() + chunkSize - 1) / chunkSize;
+        this.remainingChunks = new AtomicInteger(chunkCount);
+    }
+
+    CompletableFuture<Issue.Results> start() {
+        if (chunkCount == 0) {
+            result.complete(new Issue.Results());
+            return result;
+        }
+
+        // Cancelling the bulk create cancels the chunks in flight, the others are not sent
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                for (CompletableFuture<JsonNode> call : calls) {
+                    call.cancel(false);
+                }
+            }
+        });
+
+        for (int i = 0; i < Math.min(parallelism, chunkCount); i++) {
+            submitNext();
+        }
+        return result;
+    }
+
+    private void submitNext() {
+        int chunk = nextChunk.getAndIncrement();
+        if (chunk >= chunkCount || result.isDone()) {
+            return;
+        }
+
+        int from = chunk * chunkSize;
+        int to = Math.min(from + chunkSize, issues.size());
+
+        ObjectNode req = JsonNodeFactory.instance.objectNode();
+        ArrayNode issueList = req.putArray("issueUpdates");
+        issueList.addAll(issues.subList(from, to));
+
+        CompletableFuture<JsonNode> call;
+        try {
+            call = restclient.postAsync(path, req);
+        } catch (URISyntaxException | RuntimeException e) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(e);
+        }
+
+        calls.add(call);
+        CompletableFuture<JsonNode> sent = call;
+        call.whenComplete((json, ex) -> {
+            calls.remove(sent);
+            try {
+                if (ex != null) {
+                    mapFailure(from, to, ex);
+                } else {
+                    mapResult(from, to, json);
+                }
+            } catch (RuntimeException e) {
+                failChunk(from, to, 0, "Unexpected result on create issue: " + e);
+            }
+            onChunkDone(from, to);
+            submitNext();
+        });
+    }
+
+    /**
+     * Maps the response of a chunk: the server lists the failed issues by their position in the chunk, and the
+     * created ones in the order they were sent, without the failed ones.
+     */
+    private void mapResult(int from, int to, JsonNode json) {
+        if (json == null || !json.isObject() || !json.path("issues").isArray()) {
+            failChunk(from, to, 0, "Unexpected result on create issue");
+            return;
+        }
+
+        Set<Integer> failedElements = new HashSet<>();
+        for (JsonNode failure : json.path("errors")) {
+            int element = failure.path("failedElementNumber").asInt(-1);
+            if (element < 0 || element >= to - from) {
+                continue;
+            }
+
+            // The status sits next to failedElementNumber, elementErrors only details the failure
+            if (failure.path("status").asInt() == 400) {
+                onFieldRejection.run();
+            }
+            failedElements.add(element);
+            int index = from + element;
+            outcomes[index] = withIndex(Issue.parseFailed(names.get(index), failure), index);
+        }
+
+        JsonNode created = json.get("issues");
+        int next = 0;
+        for (int element = 0; element < to - from; element++) {
+            if (failedElements.contains(element)) {
+                continue;
+            }
+            int index = from + element;
+            if (next < created.size()) {
+                Issue.ResultCreated issue = Issue.parseCreated(names.get(index), created.get(next++));
+                outcomes[index] = new Issue.ResultCreated(issue.getKey(), issue.getName(), index);
+            } else {
+                outcomes[index] = new Issue.ResultFailed(names.get(index), 0,
+                        Collections.singletonList("No result returned for the issue"), index);
+            }
+        }
+    }
+
+    private void mapFailure(int from, int to, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+        if (cause instanceof RestException) {
+            RestException rest = (RestException) cause;
+
+            // Jira answers a 400 when no issue of the chunk could be created, with the usual errors in the body
+            if (rest.getHttpStatusCode() == 400) {
+                onFieldRejection.run();
+                JsonNode body = parse(rest.getHttpResult());
+                if (body != null && body.isObject() && body.path("errors").size() > 0) {
+                    ObjectNode bulk = body.deepCopy();
+                    if (!bulk.path("issues").isArray()) {
+                        bulk.putArray("issues");
+                    }
+                    mapResult(from, to, bulk);
+                    return;
+                }
+            }
+            failChunk(from, to, rest.getHttpStatusCode(), rest.getMessage());
+            return;
+        }
+
+        failChunk(from, to, 0, "Failed to create issue: " + cause);
+    }
+
+    private void failChunk(int from, int to, int status, String message) {
+        for (int index = from; index < to; index++) {
+            outcomes[index] = new Issue.ResultFailed(names.get(index), status, Collections.singletonList(message),
+                    index);
+        }
+    }
+
+    private void onChunkDone(int from, int to) {
+        int chunkFailures = 0;
+        for (int index = from; index < to; index++) {
+            if (outcomes[index] instanceof Issue.ResultFailed) {
+                chunkFailures++;
+            }
+        }
+
+        // Progress is reported under the lock, so that listeners see increasing counts
+        synchronized (this) {
+            processed += to - from;
+            failed += chunkFailures;
+            if (progress != null) {
+                try {
+                    progress.onProgress(processed, issues.size(), failed);
+                } catch (RuntimeException e) {
+                    // A failing listener must not lose the results of the chunks
+                    logger.warn("Bulk create progress listener failed", e);
+                }
+            }
+        }
+
+        if (remainingChunks.decrementAndGet() == 0) {
+            result.complete(collect());
+        }
+    }
+
+    private synchronized Issue.Results collect() {
+        Issue.Results results = new Issue.Results();
+        for (Object outcome : outcomes) {
+            if (outcome instanceof Issue.ResultCreated) {
+                results.created.add((Issue.ResultCreated) outcome);
+            } else if (outcome instanceof Issue.ResultFailed) {
+                results.failed.add((Issue.ResultFailed) outcome);
+            }
+        }
+        return results;
+    }
+
+    private static Issue.ResultFailed withIndex(Issue.ResultFailed failure, int index) {
+        return new Issue.ResultFailed(failure.getName(), failure.getErrorCode(), failure.getMessages(), index);
+    }
+
+    private static JsonNode parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return mapper.readTree(text);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package net.rcarz.jiraclient;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to an endpoint family that keeps failing or answering slowly, so that the request pool
+ * does not fill up with requests bound to time out.
+ *
+ * There is one circuit per host and path family: /search, /issue, /issue/bulk, /attachment... A circuit records the
+ * outcome of the last calls. It opens when the share of failed calls (5xx responses and network errors) or of slow
+ * calls goes over its threshold, and every request is then rejected with a {@link CircuitBreakerOpenException}.
+ * After the open duration the circuit is half-open: a few probe requests go through, and the circuit closes again
+ * when they all succeed, or opens again as soon as one fails.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private int windowSize = 50;
+    private int minimumCalls = 20;
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 0.8;
+    private long slowCallNanos = TimeUnit.SECONDS.toNanos(10);
+    private long openNanos = TimeUnit.SECONDS.toNanos(30);
+    private int halfOpenProbes = 3;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * @param windowSize Number of recent calls the rates are computed on
+     * @param minimumCalls Number of calls needed before the circuit can open
+     */
+    public CircuitBreaker window(int windowSize, int minimumCalls) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * @param failureRateThreshold Share of failed calls, between 0 and 1, that opens the circuit
+     */
+    public CircuitBreaker failureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param slowCallMillis Duration above which a call is slow
+     * @param slowCallRateThreshold Share of slow calls, between 0 and 1, that opens the circuit
+     */
+    public CircuitBreaker slowCallThreshold(long slowCallMillis, double slowCallRateThreshold) {
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param openMillis How long an open circuit rejects requests before letting probes through
+     */
+    public CircuitBreaker openDuration(long openMillis) {
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        return this;
+    }
+
+    /**
+     * @param halfOpenProbes Number of probe requests let through by a half-open circuit
+     */
+    public CircuitBreaker halfOpenProbes(int halfOpenProbes) {
+        if (halfOpenProbes < 1) {
+            throw new IllegalArgumentException("halfOpenProbes must be at least 1");
+        }
+        this.halfOpenProbes = halfOpenProbes;
+        return this;
+    }
+
+    /**
+     * Names the circuit of a request: its host followed by the path family, for example
+     * "jira.example.com /issue/bulk".
+     *
+     * @param uri URI of the request
+     * @return the circuit name
+     */
+    public static String circuitFor(URI uri) {
+        return circuitFor(null, uri);
+    }
+
+    /**
+     * Names the circuit of a request sent to a Jira served under a context path, which is not part of the family.
+     *
+     * @param base Base URI of the client, for example "https://host/jira"
+     * @param uri URI of the request
+     * @return the circuit name
+     */
+    public static String circuitFor(URI base, URI uri) {
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        List<String> segments = ResourcePath.segmentsOf(base, uri);
+
+        StringBuilder family = new StringBuilder();
+        if (!segments.isEmpty()) {
+            family.append('/').append(segments.get(0));
+
+            // Sub-resources like bulk or createmeta are families of their own, keys and ids are not
+            if (segments.size() > 1 && segments.get(1).matches("[a-z]+")) {
+                family.append('/').append(segments.get(1));
+            }
+        } else {
+            family.append('/');
+        }
+
+        return host + " " + family;
+    }
+
+    /**
+     * Gets the state of the circuit of a URI, so that callers can shed load before sending requests.
+     *
+     * @param uri URI of a request
+     * @return the state of its circuit
+     */
+    public State getState(URI uri) {
+        return getState(null, uri);
+    }
+
+    /**
+     * Gets the state of the circuit of a URI on a Jira served under a context path.
+     *
+     * @param base Base URI of the client, for example "https://host/jira"
+     * @param uri URI of a request
+     * @return the state of its circuit
+     */
+    public State getState(URI base, URI uri) {
+        Circuit circuit = circuits.get(circuitFor(base, uri));
+        return circuit != null ? circuit.getState(System.nanoTime()) : State.CLOSED;
+    }
+
+    /**
+     * Gets the state of every circuit that has seen a request.
+     *
+     * @return the states by circuit name
+     */
+    public Map<String, State> getStates() {
+        long now = System.nanoTime();
+        Map<String, State> states = new TreeMap<>();
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            states.put(entry.getKey(), entry.getValue().getState(now));
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Asks for the permission to send a request.
+     *
+     * @return 0 when the request can go, or how long in milliseconds until the circuit lets probes through
+     */
+    long tryAcquire(String name, long nowNanos) {
+        return circuits.computeIfAbsent(name, n -> new Circuit()).tryAcquire(nowNanos);
+    }
+
+    void onSuccess(String name, long durationNanos, long nowNanos) {
+        circuit(name).record(false, durationNanos >= slowCallNanos, nowNanos);
+    }
+
+    void onFailure(String name, long nowNanos) {
+        circuit(name).record(true, false, nowNanos);
+    }
+
+    /**
+     * Gives back a permission that ended without an outcome, for example a request the pool rejected.
+     */
+    void release(String name) {
+        circuit(name).release();
+    }
+
+    private Circuit circuit(String name) {
+        return circuits.computeIfAbsent(name, n -> new Circuit());
+    }
+
+    private class Circuit {
+
+        private State state = State.CLOSED;
+        private long openedAtNanos = 0;
+        private int probesInFlight = 0;
+        private int probesSucceeded = 0;
+
+        // Ring buffer of the outcomes of the last calls
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+        private int next = 0;
+        private int calls = 0;
+        private int failures = 0;
+        private int slowCalls = 0;
+
+        synchronized State getState(long nowNanos) {
+            if (state == State.OPEN && nowNanos - openedAtNanos >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+
+        synchronized long tryAcquire(long nowNanos) {
+            if (state == State.OPEN) {
+                long remaining = openNanos - (nowNanos - openedAtNanos);
+                if (remaining > 0) {
+                    return TimeUnit.NANOSECONDS.toMillis(remaining) + 1L;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                    return TimeUnit.NANOSECONDS.toMillis(openNanos);
+                }
+                probesInFlight++;
+            }
+
+            return 0L;
+        }
+
+        synchronized void record(boolean isFailure, boolean isSlow, long nowNanos) {
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(probesInFlight - 1, 0);
+                if (isFailure || isSlow) {
+                    open(nowNanos);
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    close();
+                }
+                return;
+            }
+
+            if (state == State.OPEN) {
+                // A call sent before the circuit opened
+                return;
+            }
+
+            if (calls == failed.length) {
+                failures -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failed[next] = isFailure;
+            slow[next] = isSlow;
+            failures += isFailure ? 1 : 0;
+            slowCalls += isSlow ? 1 : 0;
+            next = (next + 1) % failed.length;
+
+            if (calls >= minimumCalls
+                    && ((double) failures / calls >= failureRateThreshold
+                        || (double) slowCalls / calls >= slowCallRateThreshold)) {
+                open(nowNanos);
+            }
+        }
+
+        synchronized void release() {
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(probesInFlight - 1, 0);
+            }
+        }
+
+        private void open(long nowNanos) {
+            state = State.OPEN;
+            openedAtNanos = nowNanos;
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            next = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.Header;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its endpoint family is open.
+ */
+public class CircuitBreakerOpenException extends RestException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String circuit;
+    private final long retryAfterMillis;
+
+    public CircuitBreakerOpenException(String circuit, long retryAfterMillis) {
+        super(String.format("Circuit %s is open, retry in %d ms", circuit, retryAfterMillis), 503, "", new Header[0]);
+
+        this.circuit = circuit;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return the circuit that rejected the request, host and path family
+     */
+    public String getCircuit() {
+        return circuit;
+    }
+
+    /**
+     * @return how long, in milliseconds, until the circuit lets probe requests through
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
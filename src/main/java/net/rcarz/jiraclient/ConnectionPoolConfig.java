@@ -0,0 +1,175 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the pooled HTTP client that {@link JiraClient} creates when it is not given one.
+ *
+ * Connections idle for longer than {@link #maxIdle(long, TimeUnit)} are closed by a background thread, so that a
+ * quiet period does not leave the pool full of connections the server or a proxy has already dropped. Connections
+ * idle for more than {@link #validateAfterInactivity(long, TimeUnit)} are also checked before they are reused.
+ */
+public class ConnectionPoolConfig {
+
+    private int maxTotal = 40;
+    private int maxPerRoute = 20;
+    private long timeToLiveMillis = TimeUnit.MINUTES.toMillis(5);
+    private long keepAliveMillis = TimeUnit.SECONDS.toMillis(30);
+    private long maxIdleMillis = TimeUnit.SECONDS.toMillis(30);
+    private int validateAfterInactivityMillis = 2000;
+
+    /**
+     * Sets the maximum number of connections in the pool.
+     *
+     * @param maxTotal Maximum number of connections, at least 1
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig maxTotal(int maxTotal) {
+        if (maxTotal < 1) {
+            throw new IllegalArgumentException("maxTotal must be at least 1");
+        }
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of connections to a single host.
+     *
+     * @param maxPerRoute Maximum number of connections per route, at least 1
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig maxPerRoute(int maxPerRoute) {
+        if (maxPerRoute < 1) {
+            throw new IllegalArgumentException("maxPerRoute must be at least 1");
+        }
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * Sets how long a connection is used before it is closed, regardless of activity. Zero keeps connections for as
+     * long as the server allows.
+     *
+     * @param timeToLive Lifetime of a connection
+     * @param unit Unit of the lifetime
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig timeToLive(long timeToLive, TimeUnit unit) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("timeToLive may not be negative");
+        }
+        this.timeToLiveMillis = unit.toMillis(timeToLive);
+        return this;
+    }
+
+    /**
+     * Sets the longest time an idle connection is kept open. It applies when the server sends no Keep-Alive header,
+     * and caps the duration it announces: a shorter one is used as is, a longer one is cut down to this one.
+     *
+     * @param keepAlive Keep-alive duration
+     * @param unit Unit of the duration
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig keepAlive(long keepAlive, TimeUnit unit) {
+        if (keepAlive < 1) {
+            throw new IllegalArgumentException("keepAlive must be at least 1");
+        }
+        this.keepAliveMillis = unit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may stay idle in the pool before the background thread closes it.
+     *
+     * @param maxIdle Idle time
+     * @param unit Unit of the idle time
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig maxIdle(long maxIdle, TimeUnit unit) {
+        if (maxIdle < 1) {
+            throw new IllegalArgumentException("maxIdle must be at least 1");
+        }
+        this.maxIdleMillis = unit.toMillis(maxIdle);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is checked for staleness when leased. Zero disables the
+     * check.
+     *
+     * @param inactivity Idle time
+     * @param unit Unit of the idle time
+     *
+     * @return this configuration
+     */
+    public ConnectionPoolConfig validateAfterInactivity(long inactivity, TimeUnit unit) {
+        if (inactivity < 0) {
+            throw new IllegalArgumentException("inactivity may not be negative");
+        }
+        this.validateAfterInactivityMillis = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(inactivity));
+        return this;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    public int getValidateAfterInactivityMillis() {
+        return validateAfterInactivityMillis;
+    }
+
+    PoolingHttpClientConnectionManager createConnectionManager() {
+        PoolingHttpClientConnectionManager connManager = timeToLiveMillis > 0 ?
+                new PoolingHttpClientConnectionManager(timeToLiveMillis, TimeUnit.MILLISECONDS) :
+                new PoolingHttpClientConnectionManager();
+        connManager.setMaxTotal(maxTotal);
+        connManager.setDefaultMaxPerRoute(maxPerRoute);
+        connManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+        return connManager;
+    }
+
+    ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+        return (response, context) -> {
+            long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return announced > 0 ? Math.min(announced, keepAliveMillis) : keepAliveMillis;
+        };
+    }
+
+    CloseableHttpClient createHttpClient(PoolingHttpClientConnectionManager connManager) {
+        // RestClient negotiates and decodes compressed responses itself, so that it can count the bytes received
+        return HttpClientBuilder.create()
+                .setConnectionManager(connManager)
+                .setKeepAliveStrategy(createKeepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleMillis, TimeUnit.MILLISECONDS)
+                .disableContentCompression()
+                .build();
+    }
+}
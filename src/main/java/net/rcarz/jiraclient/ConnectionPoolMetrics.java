@@ -0,0 +1,58 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.pool.PoolStats;
+
+/**
+ * A point-in-time view of the connection pool of a {@link RestClient}.
+ */
+public class ConnectionPoolMetrics {
+
+    private final int leased;
+    private final int available;
+    private final int pending;
+    private final int max;
+
+    public ConnectionPoolMetrics(int leased, int available, int pending, int max) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    static ConnectionPoolMetrics of(PoolStats stats) {
+        return new ConnectionPoolMetrics(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    /**
+     * Number of connections currently carrying a request.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Number of idle connections ready to be reused.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Number of requests waiting for a connection.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Maximum number of connections in the pool.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leased=%d, available=%d, pending=%d, max=%d", leased, available, pending, max);
+    }
+}
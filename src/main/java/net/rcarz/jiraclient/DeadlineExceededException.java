@@ -0,0 +1,27 @@
+package net.rcarz.jiraclient;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a call is still running when its deadline, set with {@link RequestOptions#deadline}, expires. The
+ * request is aborted and no further retry is attempted.
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long deadlineMillis;
+
+    public DeadlineExceededException(String message, long deadlineMillis) {
+        super(message);
+
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * @return the deadline of the call, in milliseconds
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+}
@@ -0,0 +1,285 @@
+package net.rcarz.jiraclient;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Configures the thread pools used by {@link RestClient} to execute requests and to schedule retries.
+ *
+ * By default the client owns a bounded request pool and a single scheduler thread, and shuts both down when it is
+ * closed. Executors supplied by the caller are used as they are and never shut down by the client.
+ *
+ * On Java 21 or later the requests can run on virtual threads instead, see {@link #virtualThreads(boolean)}.
+ */
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    /**
+     * Set while an application thread submits a request, the only case where CALLER_RUNS may run it in place.
+     */
+    private static final ThreadLocal<Boolean> submittedByCaller = new ThreadLocal<>();
+
+    /**
+     * What happens to a request submitted while every thread is busy and the queue is full.
+     */
+    public enum QueuePolicy {
+        /** The request fails with an IOException. */
+        ABORT,
+        /**
+         * The request runs in the application thread that submitted it. Attempts submitted by the client itself,
+         * such as retries and requests released after a 429, come from threads that must not block, like the retry
+         * scheduler or the I/O thread of an HTTP/2 transport: they fail with an IOException instead, as with ABORT.
+         */
+        CALLER_RUNS
+    }
+
+    private int maxThreads = 20;
+    private int queueCapacity = 1000;
+    private long keepAliveMillis = 60000L;
+    private QueuePolicy queuePolicy = QueuePolicy.ABORT;
+    private boolean virtualThreads = false;
+    private ExecutorService executor = null;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Sets the maximum number of threads executing requests at the same time.
+     *
+     * @param maxThreads Maximum pool size, at least 1
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig maxThreads(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1");
+        }
+        this.maxThreads = maxThreads;
+        return this;
+    }
+
+    /**
+     * Sets how many requests may wait for a free thread. Zero hands requests off directly to a thread.
+     *
+     * @param queueCapacity Maximum queue length
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig queueCapacity(int queueCapacity) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity may not be negative");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets how long an idle thread is kept before it is released.
+     *
+     * @param keepAlive Idle time
+     * @param unit Unit of the idle time
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig keepAlive(long keepAlive, TimeUnit unit) {
+        this.keepAliveMillis = unit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Sets the policy applied when the pool and its queue are full.
+     *
+     * @param queuePolicy Saturation policy
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig queuePolicy(QueuePolicy queuePolicy) {
+        this.queuePolicy = queuePolicy;
+        return this;
+    }
+
+    /**
+     * Runs every request, including retried ones, on its own virtual thread when the runtime supports them
+     * (Java 21 or later). The pool size, queue and policy settings are then ignored, since concurrency is bounded by
+     * the connection pool of the HTTP client instead. On older runtimes the bounded pool is used.
+     *
+     * @param virtualThreads Whether to use virtual threads when available
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Uses a caller-owned executor to run requests. The pool settings of this configuration are then ignored.
+     *
+     * @param executor Executor to run requests on
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Uses a caller-owned scheduler to delay retries.
+     *
+     * @param scheduler Scheduler for delayed retries
+     *
+     * @return this configuration
+     */
+    public ExecutorConfig scheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public QueuePolicy getQueuePolicy() {
+        return queuePolicy;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    ExecutorService createExecutor(final AtomicLong rejectedTasks) {
+        if (virtualThreads) {
+            ExecutorService virtualExecutor = createVirtualThreadExecutor("jira-client-rest-");
+            if (virtualExecutor != null) {
+                return virtualExecutor;
+            }
+            logger.warn("Virtual threads are not available in Java {}, using a pool of {} platform threads",
+                    System.getProperty("java.specification.version"), maxThreads);
+        }
+
+        final RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        final RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+        final RejectedExecutionHandler policy = (task, executor) -> {
+            if (queuePolicy == QueuePolicy.CALLER_RUNS && Boolean.TRUE.equals(submittedByCaller.get())) {
+                callerRuns.rejectedExecution(task, executor);
+            } else {
+                abort.rejectedExecution(task, executor);
+            }
+        };
+
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ?
+                new SynchronousQueue<>() :
+                new ArrayBlockingQueue<>(queueCapacity);
+
+        // Core and maximum sizes are the same so that threads are added before requests start queuing
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads,
+                keepAliveMillis, TimeUnit.MILLISECONDS, queue, daemonThreads("jira-client-rest"),
+                (task, executor) -> {
+                    rejectedTasks.incrementAndGet();
+                    policy.rejectedExecution(task, executor);
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs the submission of a request from an application thread, during which the CALLER_RUNS policy may execute
+     * the request in that thread.
+     */
+    static <T> T submitFromCaller(Supplier<T> submission) {
+        if (Boolean.TRUE.equals(submittedByCaller.get())) {
+            return submission.get();
+        }
+
+        submittedByCaller.set(Boolean.TRUE);
+        try {
+            return submission.get();
+        } finally {
+            submittedByCaller.remove();
+        }
+    }
+
+    ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, daemonThreads("jira-client-retry"));
+        pool.setRemoveOnCancelPolicy(true);
+        return pool;
+    }
+
+    /**
+     * Tells whether the running JVM provides virtual threads.
+     *
+     * @return true on Java 21 or later
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Equivalent to {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory())}, looked up
+     * reflectively because the library is compiled for Java 8.
+     */
+    private static ExecutorService createVirtualThreadExecutor(String prefix) {
+        if (!isVirtualThreadSupported()) {
+            return null;
+        }
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Failed to create a virtual thread executor", e);
+            return null;
+        }
+    }
+
+    static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package net.rcarz.jiraclient;
+
+/**
+ * A point-in-time view of the request pool of a {@link RestClient}.
+ *
+ * Values that the underlying executor does not expose are reported as -1.
+ */
+public class ExecutorMetrics {
+
+    private final int activeThreads;
+    private final int poolSize;
+    private final int queueDepth;
+    private final long completedTasks;
+    private final long rejectedTasks;
+
+    public ExecutorMetrics(int activeThreads, int poolSize, int queueDepth, long completedTasks,
+                           long rejectedTasks) {
+        this.activeThreads = activeThreads;
+        this.poolSize = poolSize;
+        this.queueDepth = queueDepth;
+        this.completedTasks = completedTasks;
+        this.rejectedTasks = rejectedTasks;
+    }
+
+    /**
+     * Number of threads currently executing a request.
+     */
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    /**
+     * Number of threads currently in the pool, busy or idle.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Number of requests waiting for a free thread.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Number of requests the pool has finished executing.
+     */
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    /**
+     * Number of requests the pool refused because it was saturated.
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, poolSize=%d, queueDepth=%d, completed=%d, rejected=%d",
+                activeThreads, poolSize, queueDepth, completedTasks, rejectedTasks);
+    }
+}
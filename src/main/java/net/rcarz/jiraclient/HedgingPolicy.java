@@ -0,0 +1,129 @@
+package net.rcarz.jiraclient;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Configures the hedging of GET requests by {@link RestClient}: when a GET has not completed after a delay, a second
+ * copy is sent and the first response wins, the other copy being aborted.
+ *
+ * The delay is a percentile of the latencies of recent GETs, 95th by default, bounded by a minimum. Until enough
+ * latencies are known a fixed initial delay is used. Hedges are capped to a fraction of the requests, 5% by default,
+ * so that they use only a small share of the rate limit of the server.
+ */
+public class HedgingPolicy {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_CREDITS = 10;
+
+    private double percentile = 0.95;
+    private long minDelayMillis = 50L;
+    private long initialDelayMillis = 1000L;
+    private double maxHedgeRatio = 0.05;
+
+    private final long[] samples = new long[200];
+    private int next = 0;
+    private int count = 0;
+    private double credits = 1;
+
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * @param percentile Percentile, between 0 and 1, of the recent latencies after which a hedge is sent
+     */
+    public HedgingPolicy percentile(double percentile) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * @param minDelayMillis Shortest delay before a hedge, whatever the recent latencies
+     */
+    public HedgingPolicy minDelay(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+        return this;
+    }
+
+    /**
+     * @param initialDelayMillis Delay before a hedge until enough latencies are known
+     */
+    public HedgingPolicy initialDelay(long initialDelayMillis) {
+        this.initialDelayMillis = initialDelayMillis;
+        return this;
+    }
+
+    /**
+     * @param maxHedgeRatio Largest share of the requests, between 0 and 1, that may be hedged
+     */
+    public HedgingPolicy maxHedgeRatio(double maxHedgeRatio) {
+        if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("maxHedgeRatio must be between 0 and 1");
+        }
+        this.maxHedgeRatio = maxHedgeRatio;
+        return this;
+    }
+
+    /**
+     * Gets the delay after which a GET sent now is hedged.
+     *
+     * @return the delay in milliseconds
+     */
+    public synchronized long getHedgeDelayMillis() {
+        if (count < MIN_SAMPLES) {
+            return Math.max(initialDelayMillis, minDelayMillis);
+        }
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        long delay = TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(percentile * count) - 1]);
+        return Math.max(delay, minDelayMillis);
+    }
+
+    /**
+     * Records the latency of a GET, as seen by the caller.
+     */
+    synchronized void recordLatency(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Earns the credit for later hedges: each request adds maxHedgeRatio, each hedge takes 1.
+     */
+    synchronized void onRequest() {
+        credits = Math.min(credits + maxHedgeRatio, MAX_CREDITS);
+    }
+
+    synchronized boolean tryAcquireHedge() {
+        if (credits + 1e-9 < 1) {
+            return false;
+        }
+        credits -= 1;
+        hedges.incrementAndGet();
+        return true;
+    }
+
+    void onHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * @return the number of hedges that completed before the original request
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+}
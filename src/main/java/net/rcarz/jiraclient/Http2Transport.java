@@ -0,0 +1,235 @@
+package net.rcarz.jiraclient;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An {@link HttpTransport} that multiplexes concurrent requests over a few HTTP/2 connections.
+ *
+ * It is backed by the asynchronous client of Apache HttpClient 5, which is an optional dependency of this library:
+ * add {@code org.apache.httpcomponents.client5:httpclient5} to the classpath to use it. Responses are received in
+ * memory before being handed to {@link RestClient}.
+ */
+public class Http2Transport implements HttpTransport {
+
+    /**
+     * How the HTTP version is chosen for each connection.
+     */
+    public enum Mode {
+        /** HTTP/2 when the server offers it through TLS ALPN, HTTP/1.1 otherwise (including plain HTTP). */
+        NEGOTIATE,
+        /** HTTP/2 without negotiation, for servers and proxies known to speak it (h2c on plain HTTP). */
+        PRIOR_KNOWLEDGE
+    }
+
+    private final CloseableHttpAsyncClient client;
+
+    /**
+     * Creates a transport that negotiates HTTP/2 and falls back to HTTP/1.1.
+     */
+    public Http2Transport() {
+        this(Mode.NEGOTIATE, 20);
+    }
+
+    /**
+     * Creates a transport.
+     *
+     * @param mode How the HTTP version is chosen
+     * @param maxConnectionsPerRoute Connections kept per host when HTTP/1.1 is used; a single HTTP/2 connection
+     * carries many requests
+     */
+    public Http2Transport(Mode mode, int maxConnectionsPerRoute) {
+        if (mode == Mode.PRIOR_KNOWLEDGE) {
+            client = HttpAsyncClients.customHttp2().build();
+        } else {
+            client = HttpAsyncClients.custom()
+                    .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                            .setDefaultTlsConfig(TlsConfig.custom()
+                                    .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                                    .build())
+                            .setMaxConnPerRoute(maxConnectionsPerRoute)
+                            .setMaxConnTotal(maxConnectionsPerRoute * 2)
+                            .build())
+                    .build();
+        }
+        client.start();
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        try {
+            return executeAsync(request, context, Runnable::run).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getURI());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Sends the request without holding a thread while it is in flight. The returned future is completed on the
+     * given executor, so that RestClient never parses a response on the I/O reactor threads.
+     */
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request, HttpContext context,
+                                                        final Executor executor) {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        SimpleHttpRequest simpleRequest;
+        try {
+            simpleRequest = toSimpleRequest(request);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        Future<SimpleHttpResponse> exchange = client.execute(simpleRequest, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse result) {
+                completeOn(executor, future, () -> future.complete(toHttpResponse(result)));
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                completeOn(executor, future, () -> future.completeExceptionally(
+                        ex instanceof IOException ? ex : new IOException(ex)));
+            }
+
+            @Override
+            public void cancelled() {
+                completeOn(executor, future, () -> future.cancel(false));
+            }
+        });
+
+        // Aborting the request, when RestClient cancels it, cancels the exchange and releases its stream
+        if (request instanceof HttpRequestBase) {
+            ((HttpRequestBase) request).setCancellable(() -> exchange.cancel(true));
+        }
+        if (request.isAborted()) {
+            exchange.cancel(true);
+        }
+
+        return future;
+    }
+
+    /**
+     * Hands the completion of the future to the executor. A saturated or closed executor fails the future instead,
+     * so that it is always completed.
+     */
+    private static void completeOn(Executor executor, CompletableFuture<HttpResponse> future, Runnable completion) {
+        try {
+            executor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static SimpleHttpRequest toSimpleRequest(HttpUriRequest request) throws IOException {
+        SimpleHttpRequest simpleRequest = SimpleHttpRequest.create(request.getMethod(), request.getURI());
+
+        HttpEntity entity = request instanceof HttpEntityEnclosingRequest ?
+                ((HttpEntityEnclosingRequest) request).getEntity() : null;
+
+        for (Header header : request.getAllHeaders()) {
+            // Framing headers are produced by the client itself, and are forbidden in HTTP/2
+            String name = header.getName();
+            if (name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Transfer-Encoding")
+                    || name.equalsIgnoreCase("Host") || name.equalsIgnoreCase("Connection")
+                    || (entity != null && name.equalsIgnoreCase("Content-Type"))
+                    || (entity != null && entity.getContentEncoding() != null
+                            && name.equalsIgnoreCase("Content-Encoding"))) {
+                continue;
+            }
+            simpleRequest.addHeader(name, header.getValue());
+        }
+
+        // The entity carries its own encoding, such as the gzip of a compressed request body
+        if (entity != null && entity.getContentEncoding() != null) {
+            simpleRequest.addHeader("Content-Encoding", entity.getContentEncoding().getValue());
+        }
+
+        if (entity != null) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            entity.writeTo(body);
+            String contentType = entity.getContentType() != null ?
+                    entity.getContentType().getValue() : request.getFirstHeader("Content-Type") != null ?
+                    request.getFirstHeader("Content-Type").getValue() : "application/octet-stream";
+            simpleRequest.setBody(body.toByteArray(),
+                    org.apache.hc.core5.http.ContentType.parse(contentType));
+        }
+
+        return simpleRequest;
+    }
+
+    private static HttpResponse toHttpResponse(SimpleHttpResponse response) {
+        org.apache.hc.core5.http.ProtocolVersion version = response.getVersion();
+        ProtocolVersion protocolVersion = version != null ?
+                new ProtocolVersion(version.getProtocol(), version.getMajor(), version.getMinor()) :
+                HttpVersion.HTTP_1_1;
+
+        // HTTP/2 has no reason phrases, but RestException reports one
+        String reason = response.getReasonPhrase() != null ? response.getReasonPhrase() :
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(response.getCode(), Locale.ENGLISH);
+
+        BasicHttpResponse result = new BasicHttpResponse(
+                new BasicStatusLine(protocolVersion, response.getCode(), reason));
+
+        for (org.apache.hc.core5.http.Header header : response.getHeaders()) {
+            result.addHeader(header.getName(), header.getValue());
+        }
+
+        byte[] body = response.getBodyBytes();
+        if (body != null) {
+            ByteArrayEntity entity = new ByteArrayEntity(body);
+            if (response.getContentType() != null) {
+                entity.setContentType(response.getContentType().toString());
+            }
+            result.setEntity(entity);
+        }
+
+        return result;
+    }
+
+    /**
+     * Closes the underlying client and its connections.
+     */
+    @Override
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+    }
+}
@@ -0,0 +1,63 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends the HTTP requests built by {@link RestClient} and hands back the responses.
+ *
+ * Requests and responses use the HttpCore model, which is independent of the client implementation: any transport
+ * can expose its response as a {@link org.apache.http.message.BasicHttpResponse} with a streaming entity. The
+ * response entity must be left unread, RestClient streams it and releases it.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Executes a request, blocking until the status line and headers of the response are received.
+     *
+     * @param request Request to send, already authenticated
+     * @param context Execution context of the request
+     *
+     * @return the response, with its entity still unread
+     *
+     * @throws IOException when the request could not be sent or the response could not be received
+     */
+    HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException;
+
+    /**
+     * Executes a request without blocking the calling thread.
+     *
+     * The default implementation runs {@link #execute} on the given executor. Transports with a non-blocking
+     * client should override it and only use the executor, if at all, for follow-up work.
+     *
+     * @param request Request to send, already authenticated
+     * @param context Execution context of the request
+     * @param executor Executor of the calling RestClient
+     *
+     * @return a future completed with the response, or failed with the IOException raised by the transport
+     */
+    default CompletableFuture<HttpResponse> executeAsync(final HttpUriRequest request, final HttpContext context,
+                                                         Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request, context);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Releases the connections held by the transport.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
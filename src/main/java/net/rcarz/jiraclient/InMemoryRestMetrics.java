@@ -0,0 +1,235 @@
+package net.rcarz.jiraclient;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the measurements of a {@link RestClient} in memory, per endpoint: a method and a path template such as
+ * "GET /issue/{key}".
+ *
+ * Latencies are counted in a fixed set of buckets, so that the memory used does not grow with the number of requests
+ * and percentiles are precise to a bucket. Use one instance per client, or share it between clients to aggregate
+ * them.
+ */
+public class InMemoryRestMetrics implements RestMetrics {
+
+    /**
+     * Upper bounds, in milliseconds, of the latency buckets. The last bucket counts the slower requests.
+     */
+    static final long[] LATENCY_BOUNDS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void onAttempt(String method, String template, int status, long latencyNanos) {
+        endpoint(method, template).recordAttempt(status, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+    }
+
+    @Override
+    public void onRateLimited(String method, String template) {
+        endpoint(method, template).rateLimited.increment();
+    }
+
+    @Override
+    public void onRetry(String method, String template, int status) {
+        endpoint(method, template).retries.increment();
+    }
+
+    @Override
+    public void onBackoff(String method, String template, long waitMillis) {
+        endpoint(method, template).backoffMillis.add(waitMillis);
+    }
+
+    @Override
+    public void onBytesRead(String method, String template, long wireBytes, long decodedBytes) {
+        Endpoint endpoint = endpoint(method, template);
+        endpoint.wireBytes.add(wireBytes);
+        endpoint.decodedBytes.add(decodedBytes);
+    }
+
+    /**
+     * Gets the measurements of every endpoint that was called.
+     *
+     * @return the endpoints by name, for example "GET /issue/{key}", sorted by name
+     */
+    public Map<String, Endpoint> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * Gets the measurements of an endpoint.
+     *
+     * @param method HTTP method
+     * @param template Path template, see {@link RestMetrics#templateOf(java.net.URI)}
+     *
+     * @return the measurements, or null when the endpoint was not called
+     */
+    public Endpoint getEndpoint(String method, String template) {
+        return endpoints.get(method + " " + template);
+    }
+
+    public long getAttemptCount() {
+        return endpoints.values().stream().mapToLong(Endpoint::getAttemptCount).sum();
+    }
+
+    public long getRateLimitedCount() {
+        return endpoints.values().stream().mapToLong(Endpoint::getRateLimitedCount).sum();
+    }
+
+    public long getRetryCount() {
+        return endpoints.values().stream().mapToLong(Endpoint::getRetryCount).sum();
+    }
+
+    public long getBackoffMillis() {
+        return endpoints.values().stream().mapToLong(Endpoint::getBackoffMillis).sum();
+    }
+
+    public long getWireBytes() {
+        return endpoints.values().stream().mapToLong(Endpoint::getWireBytes).sum();
+    }
+
+    /**
+     * Forgets every measurement.
+     */
+    public void clear() {
+        endpoints.clear();
+    }
+
+    private Endpoint endpoint(String method, String template) {
+        return endpoints.computeIfAbsent(method + " " + template, name -> new Endpoint());
+    }
+
+    /**
+     * The measurements of one endpoint, updated as requests complete.
+     */
+    public static class Endpoint {
+
+        private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BOUNDS.length + 1);
+        private final LongAdder latencyMillis = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder backoffMillis = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+
+        void recordAttempt(int status, long latency) {
+            int bucket = 0;
+            while (bucket < LATENCY_BOUNDS.length && latency > LATENCY_BOUNDS[bucket]) {
+                bucket++;
+            }
+            latencyCounts.incrementAndGet(bucket);
+            latencyMillis.add(latency);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        /**
+         * Number of attempts, retries and hedged copies included.
+         */
+        public long getAttemptCount() {
+            long count = 0;
+            for (int i = 0; i < latencyCounts.length(); i++) {
+                count += latencyCounts.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * Number of attempts per status code, {@link RestMetrics#NO_RESPONSE} counting those that got no response.
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+
+        /**
+         * Number of attempts whose latency fell in each bucket of {@link #getLatencyBounds()}, the last element
+         * counting the attempts slower than the last bound.
+         */
+        public long[] getLatencyCounts() {
+            long[] counts = new long[latencyCounts.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = latencyCounts.get(i);
+            }
+            return counts;
+        }
+
+        public static long[] getLatencyBounds() {
+            return LATENCY_BOUNDS.clone();
+        }
+
+        public long getMeanLatencyMillis() {
+            long count = getAttemptCount();
+            return count > 0 ? latencyMillis.sum() / count : 0L;
+        }
+
+        /**
+         * Estimates a percentile of the latencies.
+         *
+         * @param percentile Percentile, between 0 and 1
+         *
+         * @return the upper bound of the bucket holding the percentile, 0 when nothing was recorded, or -1 when it is
+         * beyond the last bound
+         */
+        public long getLatencyPercentileMillis(double percentile) {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile must be between 0 and 1");
+            }
+
+            long[] counts = getLatencyCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+
+            if (total == 0) {
+                return 0L;
+            }
+
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return LATENCY_BOUNDS[i];
+                }
+            }
+            return -1L;
+        }
+
+        public long getRateLimitedCount() {
+            return rateLimited.sum();
+        }
+
+        public long getRetryCount() {
+            return retries.sum();
+        }
+
+        public long getBackoffMillis() {
+            return backoffMillis.sum();
+        }
+
+        public long getWireBytes() {
+            return wireBytes.sum();
+        }
+
+        public long getDecodedBytes() {
+            return decodedBytes.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("attempts=%d, statuses=%s, mean=%d ms, p95=%d ms, 429=%d, retries=%d, backoff=%d ms, "
+                            + "bytes=%d", getAttemptCount(), getStatusCounts(), getMeanLatencyMillis(),
+                    getLatencyPercentileMillis(0.95), getRateLimitedCount(), getRetryCount(), getBackoffMillis(),
+                    getWireBytes());
+        }
+    }
+}
@@ -40,6 +40,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Represents a JIRA issue.
@@ -54,12 +56,21 @@ public class Issue extends Resource {
      */
 
     public static final class FluentCreateComposed {
+
+        /**
+         * Largest number of issues Jira creates in a single bulk request.
+         */
+        public static final int MAX_BULK_SIZE = 50;
+
         List<IssueFields> issuesTocreate = new ArrayList<>();
         RestClient restclient = null;
         JsonNode createmeta = null;
         String project = null;
         String issueType = null;
         String serverType = null;
+        int chunkSize = MAX_BULK_SIZE;
+        int parallelism = 4;
+        CreateProgressListener progressListener = null;
 
         private FluentCreateComposed(RestClient restclient, JsonNode createmeta, String project, String issueType,
                                      String serverType) {
@@ -79,14 +90,73 @@ public class Issue extends Resource {
         }
 
         /**
-         * Executes the create action and specify which fields to retrieve.
-         * @throws JiraException when the create fails
+         * Sets how many issues are sent in each bulk request.
+         *
+         * @param chunkSize Number of issues per request, between 1 and {@link #MAX_BULK_SIZE}
+         */
+        public FluentCreateComposed chunkSize(int chunkSize) {
+            if (chunkSize < 1 || chunkSize > MAX_BULK_SIZE) {
+                throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_BULK_SIZE);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets how many bulk requests may wait for a response at the same time. The requests remain subject to the
+         * rate limiting of the client.
+         *
+         * @param parallelism Number of concurrent requests, at least 1
+         */
+        public FluentCreateComposed parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be at least 1");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param progressListener Listener told each time a bulk request completes, or null
+         */
+        public FluentCreateComposed progress(CreateProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Executes the create action, sending the issues in chunks of at most {@link #MAX_BULK_SIZE}.
+         *
+         * @return the created and failed issues, each list in the order the issues were added
+         *
+         * @throws JiraException when no fields were given for an issue or the create is interrupted
          */
         public Results execute() throws JiraException {
+            CompletableFuture<Results> results = executeAsync();
+            try {
+                return results.get();
+            } catch (InterruptedException e) {
+                results.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new JiraException("Interrupted while creating issues", e);
+            } catch (ExecutionException e) {
+                throw new JiraException("Failed to create issues", e.getCause());
+            }
+        }
 
-            ObjectNode req = JsonNodeFactory.instance.objectNode();
-            ArrayNode issueList = JsonNodeFactory.instance.arrayNode();
-            for(IssueFields issueTocreate : issuesTocreate){
+        /**
+         * Executes the create action without blocking the calling thread. Cancelling the future cancels the requests
+         * in flight and leaves the remaining issues uncreated.
+         *
+         * @return a future completed with the created and failed issues, each list in the order the issues were added
+         *
+         * @throws JiraException when no fields were given for an issue
+         */
+        public CompletableFuture<Results> executeAsync() throws JiraException {
+            List<ObjectNode> issues = new ArrayList<>(issuesTocreate.size());
+            List<String> names = new ArrayList<>(issuesTocreate.size());
+
+            for (IssueFields issueTocreate : issuesTocreate) {
                 ObjectNode issue = JsonNodeFactory.instance.objectNode();
                 ObjectNode fieldmap = JsonNodeFactory.instance.objectNode();
 
@@ -100,60 +170,28 @@ public class Issue extends Resource {
                 }
 
                 issue.set("fields", fieldmap);
-                issueList.add(issue);
-
+                issues.add(issue);
+                names.add((String) issueTocreate.fields.get(Field.SUMMARY));
             }
-            req.set("issueUpdates",issueList);
-
-            JsonNode result = null;
 
-            try {
-                result = restclient.post(getRestUriBulk(), req);
-            } catch (Exception ex) {
-                throw new JiraException("Failed to create issue", ex);
-            }
-
-            if (result == null
-                    || !result.isObject()
-                    || !result.has("issues")
-                    || !result.get("issues").isArray()) {
-                throw new JiraException("Unexpected result on create issue");
-            }
-
-            Results results = new Results();
-
-            JsonNode errorsNode = result.get("errors");
-            if (errorsNode != null && errorsNode.isArray()) {
-                for (JsonNode failed : errorsNode) {
-                    int failedElementNumber = failed.get("failedElementNumber").asInt();
-                    IssueFields issueFields = issuesTocreate.get(failedElementNumber);
-
-                    results.failed.add(
-                            parseFailed(
-                                    (String) issueFields.fields.get(Field.SUMMARY),
-                                    failed
-                            )
-                    );
-                    issuesTocreate.remove(issueFields);
-                }
-            }
+            return new BulkCreate(restclient, getRestUriBulk(), issues, names, chunkSize, parallelism,
+                    progressListener, () -> invalidateCreateMetadata(restclient, project, issueType)).start();
+        }
+    }
 
-            JsonNode issuesNode = result.get("issues");
-            if (issuesNode != null && issuesNode.isArray()) {
-                for (int i = 0; i < issuesNode.size(); i++) {
-                    JsonNode createdIssue = issuesNode.get(i);
-
-                    results.created.add(
-                            parseCreated(
-                                    (String) issuesTocreate.get(i).fields.get(Field.SUMMARY),
-                                    createdIssue
-                            )
-                    );
-                }
-            }
+    /**
+     * Follows the progress of a bulk create.
+     */
+    public interface CreateProgressListener {
 
-            return results;
-        }
+        /**
+         * Called each time a bulk request completes, from the thread that completed it.
+         *
+         * @param processed Number of issues whose request completed, created or not
+         * @param total Number of issues to create
+         * @param failed Number of issues that could not be created so far
+         */
+        void onProgress(int processed, int total, int failed);
     }
 
     protected static ResultCreated parseCreated(String name, JsonNode object) {
@@ -163,7 +201,7 @@ public class Issue extends Resource {
     protected static ResultFailed parseFailed(String name, JsonNode object) {
         List<String> messages = new ArrayList<>();
 
-        JsonNode objectError = object.get("elementErrors");
+        JsonNode objectError = object.path("elementErrors");
 
         JsonNode errorMessages = objectError.get("errorMessages");
         if (errorMessages != null && errorMessages.isArray()) {
@@ -182,7 +220,7 @@ public class Issue extends Resource {
             }
         }
 
-        return new ResultFailed(name, object.get("status").asInt(), messages);
+        return new ResultFailed(name, object.path("status").asInt(), messages);
     }
 
     public static final class Results{
@@ -201,12 +239,25 @@ public class Issue extends Resource {
     public static final class ResultCreated{
         String key;
         String name;
+        int index = -1;
 
         public ResultCreated(String key, String name){
             this.key = key;
             this.name = name;
         }
 
+        public ResultCreated(String key, String name, int index){
+            this(key, name);
+            this.index = index;
+        }
+
+        /**
+         * @return the position of the issue in the bulk create, or -1 when unknown
+         */
+        public int getIndex() {
+            return index;
+        }
+
         public String getKey() {
             return key;
         }
@@ -220,6 +271,7 @@ public class Issue extends Resource {
         String name;
         int errorCode;
         List<String> messages;
+        int index = -1;
 
         public ResultFailed(String name, int errorCode, List<String> messages){
             this.name = name;
@@ -227,6 +279,18 @@ public class Issue extends Resource {
             this.messages = messages;
         }
 
+        public ResultFailed(String name, int errorCode, List<String> messages, int index){
+            this(name, errorCode, messages);
+            this.index = index;
+        }
+
+        /**
+         * @return the position of the issue in the bulk create, or -1 when unknown
+         */
+        public int getIndex() {
+            return index;
+        }
+
         public String getName() {
             return name;
         }
@@ -254,11 +318,16 @@ public class Issue extends Resource {
         Map<String, Object> fields = new HashMap<>();
         RestClient restclient = null;
         JsonNode createmeta = null;
+        String project = null;
+        String issueType = null;
         String serverType = null;
 
-        private FluentCreate(RestClient restclient, JsonNode createmeta, String serverType) {
+        private FluentCreate(RestClient restclient, JsonNode createmeta, String project, String issueType,
+                             String serverType) {
             this.restclient = restclient;
             this.createmeta = createmeta;
+            this.project = project;
+            this.issueType = issueType;
             this.serverType = serverType;
         }
 
@@ -325,6 +394,9 @@ public class Issue extends Resource {
             try {
                 result = restclient.post(getRestUri(null), req);
             } catch (Exception ex) {
+                if (isFieldRejection(ex)) {
+                    invalidateCreateMetadata(restclient, project, issueType);
+                }
                 throw new JiraException("Failed to create issue", ex);
             }
 
@@ -566,15 +638,37 @@ public class Issue extends Resource {
         /**
          * Executes the update action.
          *
+         * When the edit metadata turns out to be stale, because a field is missing from it or the server rejects a
+         * field, the metadata is fetched again and the update is retried once if it changed.
+         *
          * @throws JiraException when the update fails
          */
         public void execute() throws JiraException {
-            ObjectNode fieldmap = JsonNodeFactory.instance.objectNode();
-            ObjectNode updatemap = JsonNodeFactory.instance.objectNode();
-
             if (fields.isEmpty() && fieldOpers.isEmpty())
                 throw new JiraException("No fields were given for update");
 
+            try {
+                put();
+            } catch (JiraException ex) {
+                if (ex.getCause() != null && !isFieldRejection(ex.getCause())) {
+                    throw ex;
+                }
+
+                invalidateEditMetadata();
+                JsonNode current = getEditMetadata();
+                if (current.equals(editmeta)) {
+                    throw ex;
+                }
+
+                editmeta = current;
+                put();
+            }
+        }
+
+        private void put() throws JiraException {
+            ObjectNode fieldmap = JsonNodeFactory.instance.objectNode();
+            ObjectNode updatemap = JsonNodeFactory.instance.objectNode();
+
             for (Map.Entry<String, Object> ent : fields.entrySet()) {
                 JsonNode newval = Field.toJson(ent.getKey(), ent.getValue(), editmeta);
                 fieldmap.set(ent.getKey(), newval);
@@ -652,21 +746,29 @@ public class Issue extends Resource {
     public final class FluentTransition {
 
         Map<String, Object> fields = new HashMap<>();
+        JsonNode catalog = null;
         List<Transition> transitions = null;
+        Map<String, Transition> transitionsById = null;
+        Map<String, Transition> transitionsByName = null;
 
-        private FluentTransition(List<Transition> transitions) {
-            this.transitions = transitions;
+        private FluentTransition(JsonNode catalog) {
+            index(catalog);
         }
 
-        private Transition getTransition(String id, boolean isName) throws JiraException {
-            Transition result = null;
+        private void index(JsonNode catalog) {
+            this.catalog = catalog;
+            this.transitions = toTransitions(catalog);
+            this.transitionsById = new HashMap<>();
+            this.transitionsByName = new HashMap<>();
 
             for (Transition transition : transitions) {
-                if((isName && id.equals(transition.getName())
-                || (!isName && id.equals(transition.getId())))){
-                    result = transition;
-                }
+                transitionsById.put(transition.getId(), transition);
+                transitionsByName.put(transition.getName(), transition);
             }
+        }
+
+        private Transition getTransition(String id, boolean isName) throws JiraException {
+            Transition result = isName ? transitionsByName.get(id) : transitionsById.get(id);
 
             if (result == null) {
                 final String allTransitionNames = Arrays.toString(transitions.toArray());
@@ -705,6 +807,31 @@ public class Issue extends Resource {
             }
         }
 
+        /**
+         * Executes a transition looked up by id or name.
+         *
+         * When the transitions turn out to be stale, because the transition is missing or the server rejects it,
+         * they are fetched again and the transition is retried once if they changed.
+         */
+        private void execute(String id, boolean isName) throws JiraException {
+            try {
+                realExecute(getTransition(id, isName));
+            } catch (JiraException ex) {
+                if (ex.getCause() != null && !isFieldRejection(ex.getCause())) {
+                    throw ex;
+                }
+
+                invalidateTransitions();
+                JsonNode current = getTransitionCatalog();
+                if (current.equals(catalog)) {
+                    throw ex;
+                }
+
+                index(current);
+                realExecute(getTransition(id, isName));
+            }
+        }
+
         /**
          * Executes the transition action.
          *
@@ -713,7 +840,7 @@ public class Issue extends Resource {
          * @throws JiraException when the transition fails
          */
         public void execute(int id) throws JiraException {
-            realExecute(getTransition(Integer.toString(id), false));
+            execute(Integer.toString(id), false);
         }
 
         /**
@@ -735,7 +862,7 @@ public class Issue extends Resource {
          * @throws JiraException when the transition fails
          */
         public void execute(String name) throws JiraException {
-            realExecute(getTransition(name, true));
+            execute(name, true);
         }
 
         /**
@@ -756,8 +883,11 @@ public class Issue extends Resource {
     /**
      * Iterates over all issues in the query by getting the next page of
      * issues when the iterator reaches the last of the current page.
+     *
+     * Once the caller starts consuming a page, the next one is fetched in
+     * the background. Closing the iterator cancels that fetch.
      */
-    private static class IssueIterator implements Iterator<Issue> {
+    private static class IssueIterator implements Iterator<Issue>, AutoCloseable {
         private Iterator<Issue> currentPage;
         private RestClient restclient;
         private Issue nextIssue;
@@ -768,6 +898,9 @@ public class Issue extends Resource {
         private Integer startAt;
         private List<Issue> issues;
         private int total;
+        private boolean prefetchEnabled;
+        private volatile CompletableFuture<JsonNode> prefetch;
+        private volatile boolean closed;
         
         public IssueIterator(RestClient restclient, String jql, String includedFields,
                              String expandFields, Integer maxResults, Integer startAt)
@@ -782,6 +915,9 @@ public class Issue extends Resource {
         
         @Override
         public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
             if (nextIssue != null) {
                 return true;
             }
@@ -800,9 +936,44 @@ public class Issue extends Resource {
             }
             Issue result = nextIssue;
             nextIssue = null;
+            prefetchNextPage();
             return result;
         }
 
+        /**
+         * Stops the iteration, cancelling the page request still in flight
+         * in the background, if any.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            nextIssue = null;
+            CompletableFuture<JsonNode> page = prefetch;
+            prefetch = null;
+            if (page != null && !page.isDone()) {
+                page.cancel(true);
+            }
+        }
+
+        /**
+         * Starts fetching the page after the current one, when prefetching
+         * is enabled, unless it is the last page or the fetch has already
+         * started.
+         */
+        private void prefetchNextPage() {
+            if (!prefetchEnabled || closed || prefetch != null || issues == null
+                    || issues.isEmpty() || startAt + issues.size() >= total) {
+                return;
+            }
+
+            try {
+                prefetch = restclient.getAsync(createSearchURI(restclient, jql,
+                        includedFields, expandFields, maxResults, startAt + issues.size()));
+            } catch (URISyntaxException ex) {
+                // The page is fetched, and the error reported, when it is needed
+            }
+        }
+
         @Override
         public void remove() {
             throw new UnsupportedOperationException("Method remove() not support for class " +
@@ -858,13 +1029,27 @@ public class Issue extends Resource {
             }
 
             JsonNode result = null;
+            CompletableFuture<JsonNode> page = prefetch;
 
+            // The prefetched page stays visible to close() until it arrives
             try {
-                URI searchUri = createSearchURI(restclient, jql, includedFields,
-                        expandFields, maxResults, startAt);
-                result = restclient.get(searchUri);
+                if (page != null) {
+                    result = page.get();
+                } else {
+                    URI searchUri = createSearchURI(restclient, jql, includedFields,
+                            expandFields, maxResults, startAt);
+                    result = restclient.get(searchUri);
+                }
+            } catch (ExecutionException ex) {
+                throw new JiraException("Failed to search issues", ex.getCause());
+            } catch (InterruptedException ex) {
+                page.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new JiraException("Failed to search issues", ex);
             } catch (Exception ex) {
                 throw new JiraException("Failed to search issues", ex);
+            } finally {
+                prefetch = null;
             }
 
             if (result == null || !result.isObject()) {
@@ -894,7 +1079,7 @@ public class Issue extends Resource {
      * result value. The price for this, is that the call to next has none determistic performence,
      * as it sometimes need to fetch a new batch of issues from Jira.
      */
-    public static class SearchResult {
+    public static class SearchResult implements AutoCloseable {
         public int start = 0;
         public int max = 0;
         public int total = 0;
@@ -928,6 +1113,31 @@ public class Issue extends Resource {
         public Iterator<Issue> iterator() {
             return issueIterator;
         }
+
+        /**
+         * Makes the iterator fetch the next page in the background as soon
+         * as it hands out the first issue of the current one, so that the
+         * page is ready by the time the caller gets to it. Disabled by
+         * default, as it costs a request for a page the caller may never
+         * read: a caller that stops before the end of the results should
+         * close the search result, which cancels the page fetched ahead.
+         *
+         * @param prefetch true to fetch the next page ahead of time
+         * @return this search result
+         */
+        public SearchResult prefetch(boolean prefetch) {
+            issueIterator.prefetchEnabled = prefetch;
+            return this;
+        }
+
+        /**
+         * Stops iterating over the issues, cancelling the page the iterator
+         * is fetching in the background, if any.
+         */
+        @Override
+        public void close() {
+            issueIterator.close();
+        }
     }
 
     public static final class NewAttachment {
@@ -1081,20 +1291,60 @@ public class Issue extends Resource {
         return getBaseUri() + "issue/bulk";
     }
 
+    /**
+     * Retrieves the create metadata of a project and issue type, through the metadata cache when the client has one.
+     *
+     * @param restclient REST client instance
+     * @param project Key of the project
+     * @param issueTypeId Issue type
+     *
+     * @return the metadata of each field, keyed by field id
+     *
+     * @throws JiraException when the client fails to retrieve the metadata
+     */
     public static JsonNode getCreateMetadata(RestClient restclient,
                                                String project,
                                                String issueTypeId) throws JiraException {
-        if (isJiraServerV9(restclient)) {
+        try {
+            return MetadataCache.get(restclient, MetadataCache.Kind.CREATE_METADATA,
+                    createMetadataKey(project, issueTypeId),
+                    () -> loadCreateMetadata(restclient, project, issueTypeId));
+        } catch (JiraException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JiraException("Failed to retrieve issue metadata", ex);
+        }
+    }
+
+    private static JsonNode loadCreateMetadata(RestClient restclient,
+                                               String project,
+                                               String issueTypeId) throws JiraException {
+        if (ServerCapabilities.get(restclient).supportsCreateMetaV9()) {
             return getCreateMetadataV9(restclient, project, issueTypeId);
         }
 
         return getCreateMetadataV8(restclient, project, issueTypeId);
     }
 
-    private static boolean isJiraServerV9(RestClient restclient) throws JiraException {
-        ServerInfo serverInfo = ServerInfo.get(restclient);
-        return serverInfo.getDeploymentType().equalsIgnoreCase("Server") &&
-               serverInfo.getVersionNumbers().get(0) >= 9;
+    private static String createMetadataKey(String project, String issueTypeId) {
+        return project + "/" + issueTypeId;
+    }
+
+    /**
+     * Drops the cached create metadata of a project and issue type, so that the next create picks up changes to
+     * its field configuration.
+     */
+    private static void invalidateCreateMetadata(RestClient restclient, String project, String issueTypeId) {
+        MetadataCache.invalidate(restclient, MetadataCache.Kind.CREATE_METADATA,
+                createMetadataKey(project, issueTypeId));
+    }
+
+    /**
+     * @return whether Jira rejected the fields of a create or update, which it answers with 400 Bad Request
+     */
+    private static boolean isFieldRejection(Throwable ex) {
+        return ex instanceof RestException
+                && ((RestException) ex).getHttpStatusCode() == 400;
     }
 
     private static JsonNode getCreateMetadataV9(RestClient restclient,
@@ -1172,7 +1422,47 @@ public class Issue extends Resource {
         return projects.get(0).getIssueTypes().get(0).getFields();
     }
 
-    private JsonNode getEditMetadata() throws JiraException {
+    /**
+     * Retrieves the edit metadata of this issue.
+     *
+     * Issues of the same project and issue type share their edit metadata, so when the client has a metadata cache
+     * it is fetched once for all of them. The result can also be handed to {@link #update(JsonNode)} for other
+     * issues with the same screen.
+     *
+     * @return the metadata of each editable field, keyed by field id
+     *
+     * @throws JiraException when the client fails to retrieve the metadata
+     */
+    public JsonNode getEditMetadata() throws JiraException {
+        String screen = getEditMetadataKey();
+        if (screen == null) {
+            return loadEditMetadata();
+        }
+
+        try {
+            return MetadataCache.get(restclient, MetadataCache.Kind.EDIT_METADATA, screen, this::loadEditMetadata);
+        } catch (JiraException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JiraException("Failed to retrieve issue metadata", ex);
+        }
+    }
+
+    private String getEditMetadataKey() {
+        if (project == null || project.getKey() == null || issueType == null || issueType.getId() == null) {
+            return null;
+        }
+        return project.getKey() + "/" + issueType.getId();
+    }
+
+    private void invalidateEditMetadata() {
+        String screen = getEditMetadataKey();
+        if (screen != null) {
+            MetadataCache.invalidate(restclient, MetadataCache.Kind.EDIT_METADATA, screen);
+        }
+    }
+
+    private JsonNode loadEditMetadata() throws JiraException {
         JsonNode result = null;
 
         try {
@@ -1194,14 +1484,76 @@ public class Issue extends Resource {
         return fieldsNode;
     }
 
+    /**
+     * Retrieves the transitions available to this issue.
+     *
+     * Issues of the same project and issue type in the same status share their transitions, so when the client has
+     * a metadata cache they are fetched once for all of them.
+     *
+     * @return the available transitions
+     *
+     * @throws JiraException when the client fails to retrieve the transitions
+     */
     public List<Transition> getTransitions() throws JiraException {
+        return toTransitions(getTransitionCatalog());
+    }
+
+    private JsonNode getTransitionCatalog() throws JiraException {
+        String workflowState = getTransitionsKey();
+        if (workflowState == null) {
+            return getTransitionsNode(loadTransitions());
+        }
+
+        // The server answers with the transitions out of the current status of the issue, which may have changed
+        // since this issue was fetched: they are only cached when they leave the status the key was built from
+        final JsonNode[] loaded = new JsonNode[1];
+        JsonNode catalog;
+        try {
+            catalog = MetadataCache.get(restclient, MetadataCache.Kind.TRANSITIONS, workflowState, () -> {
+                JsonNode result = loadTransitions();
+                loaded[0] = getTransitionsNode(result);
+                JsonNode current = result.path("fields").path("status").path("id");
+                return status.getId().equals(current.asText(null)) ? loaded[0] : null;
+            });
+        } catch (JiraException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JiraException("Failed to retrieve transitions", ex);
+        }
+
+        if (catalog != null) {
+            return catalog;
+        }
+        // Another caller's load that was not cached leaves nothing to the callers waiting for it
+        return loaded[0] != null ? loaded[0] : getTransitionsNode(loadTransitions());
+    }
+
+    private String getTransitionsKey() {
+        String screen = getEditMetadataKey();
+        if (screen == null || status == null || status.getId() == null) {
+            return null;
+        }
+        return screen + "/" + status.getId();
+    }
+
+    private void invalidateTransitions() {
+        String workflowState = getTransitionsKey();
+        if (workflowState != null) {
+            MetadataCache.invalidate(restclient, MetadataCache.Kind.TRANSITIONS, workflowState);
+        }
+    }
+
+    /**
+     * Fetches the transitions of the issue along with its current status.
+     */
+    private JsonNode loadTransitions() throws JiraException {
         JsonNode result = null;
 
         try {
             Map<String, String> params = new HashMap<>();
             params.put("expand", "transitions.fields");
-            URI transuri = restclient.buildURI(
-                getRestUri(key) + "/transitions",params);
+            params.put("fields", "status");
+            URI transuri = restclient.buildURI(getRestUri(key), params);
             result = restclient.get(transuri);
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve transitions", ex);
@@ -1211,12 +1563,20 @@ public class Issue extends Resource {
             throw new JiraException("JSON payload is malformed");
         }
 
+        return result;
+    }
+
+    private static JsonNode getTransitionsNode(JsonNode result) throws JiraException {
         JsonNode transitionsNode = result.get("transitions");
 
         if (transitionsNode == null || transitionsNode.isNull() || !transitionsNode.isArray()) {
             throw new JiraException("Transition metadata is missing.");
         }
 
+        return transitionsNode;
+    }
+
+    private List<Transition> toTransitions(JsonNode transitionsNode) {
         List<Transition> trans = new ArrayList<>();
 
         for (JsonNode node : transitionsNode) {
@@ -1451,6 +1811,8 @@ public class Issue extends Resource {
         FluentCreate fc = new FluentCreate(
             restclient,
             getCreateMetadata(restclient, project, issueType),
+            project,
+            issueType,
             serverType);
 
         return fc
@@ -1715,7 +2077,7 @@ public class Issue extends Resource {
      * @throws JiraException when the client fails to retrieve issue metadata
      */
     public FluentTransition transition() throws JiraException {
-        return new FluentTransition(getTransitions());
+        return new FluentTransition(getTransitionCatalog());
     }
 
     /**
@@ -1729,6 +2091,21 @@ public class Issue extends Resource {
         return new FluentUpdate(getEditMetadata());
     }
 
+    /**
+     * Begins an update field chain with edit metadata the caller already has, for example from another issue with
+     * the same project and issue type, so that executing it takes a single request.
+     *
+     * @param editmeta Edit metadata, as returned by {@link #getEditMetadata()}
+     *
+     * @return a fluent update instance
+     */
+    public FluentUpdate update(JsonNode editmeta) {
+        if (editmeta == null) {
+            throw new IllegalArgumentException("editmeta may not be null");
+        }
+        return new FluentUpdate(editmeta);
+    }
+
     /**
      * Casts a vote in favour of an issue.
      *
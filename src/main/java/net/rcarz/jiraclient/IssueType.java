@@ -74,7 +74,8 @@ public class IssueType extends Resource {
         JsonNode result = null;
 
         try {
-            result = restclient.get(getBaseUri() + "issuetype/" + id);
+            result = MetadataCache.get(restclient, MetadataCache.Kind.ISSUE_TYPE, id,
+                    () -> restclient.get(getBaseUri() + "issuetype/" + id));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve issue type " + id, ex);
         }
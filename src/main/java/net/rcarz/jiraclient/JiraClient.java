@@ -19,10 +19,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -34,10 +33,11 @@ import java.util.Map;
 /**
  * A simple JIRA REST client.
  */
-public class JiraClient {
+public class JiraClient implements Closeable {
 
     protected RestClient restclient = null;
     private String username = null;
+    private boolean ownsTransport = false;
 
     /**
      * Creates a JIRA client.
@@ -74,15 +74,65 @@ public class JiraClient {
     }
 
     public JiraClient(HttpClient httpClient, String uri, ICredentials creds, HttpContext context, boolean enableRetryOnRateLimit) throws JiraException {
+        this(httpClient, uri, creds, context, enableRetryOnRateLimit, new ExecutorConfig());
+    }
+
+    /**
+     * Creates an authenticated JIRA client with custom HttpClient and thread pools.
+     *
+     * @param httpClient             Custom HttpClient to be used, or null to create a pooled one
+     * @param uri                    Base URI of the JIRA server
+     * @param creds                  Credentials to authenticate with
+     * @param context                HTTP context shared by the requests
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig         Thread pools used to execute requests and to schedule retries
+     */
+    public JiraClient(HttpClient httpClient, String uri, ICredentials creds, HttpContext context,
+                      boolean enableRetryOnRateLimit, ExecutorConfig executorConfig) throws JiraException {
         if (httpClient == null) {
-            PoolingClientConnectionManager connManager = new PoolingClientConnectionManager();
-            connManager.setDefaultMaxPerRoute(20);
-            connManager.setMaxTotal(40);
-            httpClient = new DefaultHttpClient(connManager);
+            restclient = new RestClient(new ApacheHttpTransport(new ConnectionPoolConfig()), creds, URI.create(uri),
+                    context, enableRetryOnRateLimit, executorConfig);
+            ownsTransport = true;
+        } else {
+            restclient = new RestClient(httpClient, creds, URI.create(uri), context, enableRetryOnRateLimit,
+                    executorConfig);
         }
+        initialize(creds);
+    }
 
-        restclient = new RestClient(httpClient, creds, URI.create(uri), context, enableRetryOnRateLimit);
+    /**
+     * Creates an authenticated JIRA client with a pooled HttpClient and custom thread pools.
+     *
+     * @param uri                    Base URI of the JIRA server
+     * @param creds                  Credentials to authenticate with
+     * @param poolConfig             Settings of the connection pool
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig         Thread pools used to execute requests and to schedule retries
+     */
+    public JiraClient(String uri, ICredentials creds, ConnectionPoolConfig poolConfig, boolean enableRetryOnRateLimit,
+                      ExecutorConfig executorConfig) throws JiraException {
+        restclient = new RestClient(new ApacheHttpTransport(poolConfig), creds, URI.create(uri), null,
+                enableRetryOnRateLimit, executorConfig);
+        ownsTransport = true;
+        initialize(creds);
+    }
 
+    /**
+     * Creates an authenticated JIRA client over a custom HTTP transport.
+     *
+     * @param transport              Transport used to send the requests
+     * @param uri                    Base URI of the JIRA server
+     * @param creds                  Credentials to authenticate with
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig         Thread pools used to execute requests and to schedule retries
+     */
+    public JiraClient(HttpTransport transport, String uri, ICredentials creds, boolean enableRetryOnRateLimit,
+                      ExecutorConfig executorConfig) throws JiraException {
+        restclient = new RestClient(transport, creds, URI.create(uri), enableRetryOnRateLimit, executorConfig);
+        initialize(creds);
+    }
+
+    private void initialize(ICredentials creds) throws JiraException {
         if (creds != null) {
             username = creds.getLogonName();
             //intialize connection if required
@@ -101,6 +151,26 @@ public class JiraClient {
         return ServerInfo.get(restclient);
     }
 
+    /**
+     * Obtains the capabilities of the server, detected once per client.
+     *
+     * @return the server capabilities
+     * @throws JiraException failed to obtain the server info
+     */
+    public ServerCapabilities getServerCapabilities() throws JiraException {
+        return ServerCapabilities.get(restclient);
+    }
+
+    /**
+     * Detects the capabilities of the server again, for example after it was upgraded.
+     *
+     * @return the new server capabilities
+     * @throws JiraException failed to obtain the server info
+     */
+    public ServerCapabilities refreshServerCapabilities() throws JiraException {
+        return ServerCapabilities.refresh(restclient);
+    }
+
     /**
      * Creates a new issue in the given project.
      *
@@ -406,7 +476,8 @@ public class JiraClient {
     public List<Priority> getPriorities() throws JiraException {
         try {
             URI uri = restclient.buildURI(Resource.getBaseUri() + "priority");
-            JsonNode response = restclient.get(uri);
+            JsonNode response = MetadataCache.get(restclient, MetadataCache.Kind.PRIORITY, "*",
+                    () -> restclient.get(uri));
 
             List<Priority> priorities = new ArrayList<Priority>();
             if (response.isArray()) {
@@ -465,6 +536,31 @@ public class JiraClient {
         return restclient;
     }
 
+    /**
+     * Caches the server info, projects, issue types, priorities, statuses and resolutions, which otherwise are
+     * requested from the server on every call.
+     *
+     * @param metadataCache Cache to use, or null to disable caching
+     */
+    public void setMetadataCache(MetadataCache metadataCache) {
+        restclient.setMetadataCache(metadataCache);
+    }
+
+    public MetadataCache getMetadataCache() {
+        return restclient.getMetadataCache();
+    }
+
+    /**
+     * Releases the thread pools of the REST client, and the transport when this client created it.
+     */
+    public void close() throws IOException {
+        restclient.close();
+
+        if (ownsTransport) {
+            restclient.getTransport().close();
+        }
+    }
+
     public String getSelf() {
         return username;
     }
@@ -479,7 +575,8 @@ public class JiraClient {
     public List<Project> getProjects() throws JiraException {
         try {
             URI uri = restclient.buildURI(Resource.getBaseUri() + "project");
-            JsonNode response = restclient.get(uri);
+            JsonNode response = MetadataCache.get(restclient, MetadataCache.Kind.PROJECT, "*",
+                    () -> restclient.get(uri));
 
             List<Project> projects = new ArrayList<>();
             if (response.isArray()) {
@@ -505,7 +602,8 @@ public class JiraClient {
     public Project getProject(String key) throws JiraException {
         try {
             URI uri = restclient.buildURI(Resource.getBaseUri() + "project/" + key);
-            JsonNode response = restclient.get(uri);
+            JsonNode response = MetadataCache.get(restclient, MetadataCache.Kind.PROJECT, key,
+                    () -> restclient.get(uri));
             return new Project(restclient, response);
         } catch (Exception ex) {
             throw new JiraException(ex.getMessage(), ex);
@@ -521,7 +619,8 @@ public class JiraClient {
     public List<IssueType> getIssueTypes() throws JiraException {
         try {
             URI uri = restclient.buildURI(Resource.getBaseUri() + "issuetype");
-            JsonNode response = restclient.get(uri);
+            JsonNode response = MetadataCache.get(restclient, MetadataCache.Kind.ISSUE_TYPE, "*",
+                    () -> restclient.get(uri));
 
             List<IssueType> issueTypes = new ArrayList<>();
             if (response.isArray()) {
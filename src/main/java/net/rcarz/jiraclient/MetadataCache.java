@@ -0,0 +1,334 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the resources that rarely change: server info, projects, issue types, priorities, statuses and
+ * resolutions, the create and edit metadata of each project and issue type, and the transitions out of each status.
+ *
+ * Every kind of resource has its own time to live, and optionally a maximum number of entries beyond which the least
+ * recently used entry of the kind is evicted. An entry past the refresh-ahead point of its TTL, 80% by default, is
+ * still served while it is reloaded in the background, so callers do not wait for it unless it has expired.
+ * Concurrent callers asking for the same missing entry share a single request to the server.
+ *
+ * The cache holds the JSON payloads and hands out copies of them. It is enabled on a client with
+ * {@link JiraClient#setMetadataCache(MetadataCache)}.
+ */
+public class MetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    public enum Kind {
+        SERVER_INFO, PROJECT, ISSUE_TYPE, PRIORITY, STATUS, RESOLUTION, CREATE_METADATA, EDIT_METADATA,
+        TRANSITIONS
+    }
+
+    /**
+     * Loads a payload from the server.
+     */
+    public interface Loader {
+        JsonNode load() throws Exception;
+    }
+
+    private final Map<Kind, Long> ttlNanos = new EnumMap<>(Kind.class);
+    private final Map<Kind, Integer> maxEntries = new EnumMap<>(Kind.class);
+    private double refreshAhead = 0.8;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Load> loads = new ConcurrentHashMap<>();
+    private final Executor refreshExecutor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    public MetadataCache() {
+        for (Kind kind : Kind.values()) {
+            ttlNanos.put(kind, TimeUnit.HOURS.toNanos(1));
+        }
+        ttlNanos.put(Kind.PROJECT, TimeUnit.MINUTES.toNanos(5));
+        ttlNanos.put(Kind.CREATE_METADATA, TimeUnit.MINUTES.toNanos(10));
+        ttlNanos.put(Kind.EDIT_METADATA, TimeUnit.MINUTES.toNanos(10));
+        ttlNanos.put(Kind.TRANSITIONS, TimeUnit.MINUTES.toNanos(10));
+        maxEntries.put(Kind.CREATE_METADATA, 200);
+        maxEntries.put(Kind.EDIT_METADATA, 200);
+        maxEntries.put(Kind.TRANSITIONS, 500);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), ExecutorConfig.daemonThreads("jira-client-metadata"));
+        executor.allowCoreThreadTimeOut(true);
+        refreshExecutor = executor;
+    }
+
+    /**
+     * @param kind Kind of resource
+     * @param ttlMillis How long its entries are served, 1 hour by default, 5 minutes for projects and 10 minutes
+     *                  for create and edit metadata and transitions
+     */
+    public MetadataCache ttl(Kind kind, long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("ttlMillis may not be negative");
+        }
+        ttlNanos.put(kind, TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        return this;
+    }
+
+    /**
+     * @param kind Kind of resource
+     * @param max Largest number of entries of the kind, unbounded by default except for create and edit
+     *            metadata, which keep 200 each, and transitions, which keep 500
+     */
+    public MetadataCache maxEntries(Kind kind, int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("max must be at least 1");
+        }
+        maxEntries.put(kind, max);
+        return this;
+    }
+
+    /**
+     * @param refreshAhead Share of the TTL, between 0 and 1, after which entries are reloaded in the background;
+     *                     1 disables the background refresh
+     */
+    public MetadataCache refreshAhead(double refreshAhead) {
+        if (refreshAhead <= 0 || refreshAhead > 1) {
+            throw new IllegalArgumentException("refreshAhead must be between 0 and 1");
+        }
+        this.refreshAhead = refreshAhead;
+        return this;
+    }
+
+    public long getTtlMillis(Kind kind) {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos.get(kind));
+    }
+
+    /**
+     * Gets a payload, loading it when it is missing or expired.
+     *
+     * @param kind Kind of resource
+     * @param key Identifies the resource within its kind, for example its id
+     * @param loader Loads the payload from the server
+     * @return a copy of the payload
+     * @throws Exception when the loader fails
+     */
+    public JsonNode get(Kind kind, String key, Loader loader) throws Exception {
+        String name = kind + "/" + key;
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(name);
+        if (entry != null && now - entry.expiresAt < 0) {
+            hits.incrementAndGet();
+            entry.lastAccess = now;
+            if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                refreshInBackground(kind, name, loader);
+            }
+            return entry.value.deepCopy();
+        }
+
+        misses.incrementAndGet();
+        JsonNode value = load(kind, name, loader);
+        return value != null ? value.deepCopy() : null;
+    }
+
+    /**
+     * Removes a resource, for example after changing it.
+     *
+     * @param kind Kind of resource
+     * @param key Identifies the resource within its kind
+     */
+    public void invalidate(Kind kind, String key) {
+        String name = kind + "/" + key;
+        Load load = loads.get(name);
+        if (load != null) {
+            load.invalidated = true;
+        }
+        entries.remove(name);
+    }
+
+    /**
+     * Removes every resource of a kind.
+     *
+     * @param kind Kind of resource
+     */
+    public void invalidate(Kind kind) {
+        String prefix = kind + "/";
+        loads.forEach((name, load) -> {
+            if (name.startsWith(prefix)) {
+                load.invalidated = true;
+            }
+        });
+        entries.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    /**
+     * Removes every resource.
+     */
+    public void invalidateAll() {
+        loads.values().forEach(load -> load.invalidated = true);
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of payloads served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of payloads that were missing or expired
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of payloads reloaded in the background before they expired
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    /**
+     * Loads a payload, or waits for the load another caller has started.
+     */
+    private JsonNode load(Kind kind, String name, Loader loader) throws Exception {
+        Load load = new Load();
+        Load running = loads.putIfAbsent(name, load);
+
+        if (running != null) {
+            try {
+                return running.result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        try {
+            JsonNode value = loader.load();
+            if (value != null) {
+                long now = System.nanoTime();
+                long ttl = ttlNanos.get(kind);
+                Entry entry = new Entry(value, now + (long) (ttl * refreshAhead), now + ttl);
+                entries.put(name, entry);
+
+                // An invalidation marks the load before removing the entry, so one that raced the load is seen
+                // either here or by its own removal
+                if (load.invalidated) {
+                    entries.remove(name, entry);
+                }
+                evictBeyondMax(kind);
+            }
+            load.result.complete(value);
+            return value;
+        } catch (Exception e) {
+            load.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(name, load);
+        }
+    }
+
+    private void evictBeyondMax(Kind kind) {
+        Integer max = maxEntries.get(kind);
+        if (max == null) {
+            return;
+        }
+
+        String prefix = kind + "/";
+        int count = 0;
+        String eldest = null;
+        long eldestAccess = 0;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (candidate.getKey().startsWith(prefix)) {
+                count++;
+                if (eldest == null || candidate.getValue().lastAccess - eldestAccess < 0) {
+                    eldest = candidate.getKey();
+                    eldestAccess = candidate.getValue().lastAccess;
+                }
+            }
+        }
+
+        if (count > max && eldest != null) {
+            entries.remove(eldest);
+        }
+    }
+
+    private void refreshInBackground(Kind kind, String name, Loader loader) {
+        refreshes.incrementAndGet();
+        refreshExecutor.execute(() -> {
+            try {
+                load(kind, name, loader);
+            } catch (Exception e) {
+                // The entry is served until it expires, the next caller after that reloads it
+                logger.debug("Failed to refresh {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Gets a payload through the metadata cache of a REST client, or straight from the loader when it has none.
+     */
+    static JsonNode get(RestClient restclient, Kind kind, String key, Loader loader) throws Exception {
+        MetadataCache cache = restclient.getMetadataCache();
+        return cache != null ? cache.get(kind, key, loader) : loader.load();
+    }
+
+    /**
+     * Removes a resource from the metadata cache of a REST client, if it has one.
+     */
+    static void invalidate(RestClient restclient, Kind kind, String key) {
+        MetadataCache cache = restclient.getMetadataCache();
+        if (cache != null) {
+            cache.invalidate(kind, key);
+        }
+    }
+
+    /**
+     * A load in flight, marked when its resource is invalidated before it completes: the payload it got may
+     * predate the change, so it is returned to its callers but not cached.
+     */
+    private static class Load {
+
+        private final CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
+    private static class Entry {
+
+        private final JsonNode value;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long lastAccess;
+
+        Entry(JsonNode value, long refreshAt, long expiresAt) {
+            this.value = value;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+}
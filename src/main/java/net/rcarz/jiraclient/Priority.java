@@ -66,7 +66,8 @@ public class Priority extends Resource {
         JsonNode result = null;
 
         try {
-            result = restclient.get(getBaseUri() + "priority/" + id);
+            result = MetadataCache.get(restclient, MetadataCache.Kind.PRIORITY, id,
+                    () -> restclient.get(getBaseUri() + "priority/" + id));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve priority " + id, ex);
         }
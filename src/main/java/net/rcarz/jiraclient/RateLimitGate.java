@@ -0,0 +1,122 @@
+package net.rcarz.jiraclient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds back every request of a client once the server has answered one of them with a 429.
+ *
+ * Without it each request discovers the rate limit on its own and backs off on its own, while the others keep
+ * hitting the server. After a 429 the gate stops admitting requests until the resume time, and then lets the
+ * traffic back in gradually: admitted requests are spaced out, starting at the initial spacing and shrinking
+ * linearly to zero over the ramp-up period.
+ *
+ * {@link RestClient} has a gate of its own; clients that talk to the same host can share one.
+ */
+public class RateLimitGate {
+
+    private static final long DEFAULT_RAMP_UP_MILLIS = 10000L;
+    private static final long DEFAULT_INITIAL_SPACING_MILLIS = 500L;
+
+    private final long rampUpNanos;
+    private final long initialSpacingNanos;
+
+    private long resumeAtNanos = 0;
+    private long nextSlotNanos = 0;
+    private boolean active = false;
+    private long pauseCount = 0;
+
+    public RateLimitGate() {
+        this(DEFAULT_RAMP_UP_MILLIS, DEFAULT_INITIAL_SPACING_MILLIS);
+    }
+
+    /**
+     * @param rampUpMillis How long the traffic takes to return to full speed once the pause is over
+     * @param initialSpacingMillis Time between the first requests admitted after the pause
+     */
+    public RateLimitGate(long rampUpMillis, long initialSpacingMillis) {
+        if (rampUpMillis < 0 || initialSpacingMillis < 0 || initialSpacingMillis > rampUpMillis) {
+            throw new IllegalArgumentException("initialSpacingMillis must be between 0 and rampUpMillis");
+        }
+        this.rampUpNanos = TimeUnit.MILLISECONDS.toNanos(rampUpMillis);
+        this.initialSpacingNanos = TimeUnit.MILLISECONDS.toNanos(initialSpacingMillis);
+    }
+
+    /**
+     * Stops admitting requests for the given time. A pause never shortens one that is already in progress.
+     *
+     * @param waitMillis Time to wait before sending requests again
+     */
+    public void pause(long waitMillis) {
+        pause(waitMillis, System.nanoTime());
+    }
+
+    synchronized void pause(long waitMillis, long nowNanos) {
+        long resumeAt = nowNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(waitMillis, 0L));
+        pauseCount++;
+
+        if (!active || resumeAt - resumeAtNanos > 0) {
+            // The ramp-up starts over from the new resume time
+            resumeAtNanos = resumeAt;
+            nextSlotNanos = resumeAt;
+            active = true;
+        }
+    }
+
+    /**
+     * Admits a request.
+     *
+     * @return how long, in milliseconds, the request must wait before being sent
+     */
+    public long admit() {
+        return admit(System.nanoTime());
+    }
+
+    synchronized long admit(long nowNanos) {
+        if (!active) {
+            return 0L;
+        }
+
+        long rampEnd = resumeAtNanos + rampUpNanos;
+        if (nowNanos - rampEnd >= 0) {
+            active = false;
+            return 0L;
+        }
+
+        long slot = nowNanos - nextSlotNanos > 0 ? nowNanos : nextSlotNanos;
+
+        // The spacing shrinks linearly with the time left until the end of the ramp-up
+        long spacing = rampUpNanos > 0 ? (long) (initialSpacingNanos * ((double) (rampEnd - slot) / rampUpNanos)) : 0L;
+        nextSlotNanos = slot + spacing;
+
+        long delay = slot - nowNanos;
+        return delay > 0 ? TimeUnit.NANOSECONDS.toMillis(delay) + 1L : 0L;
+    }
+
+    /**
+     * Tells whether the gate is holding back requests, either paused or ramping up.
+     *
+     * @return true until the ramp-up following the last pause is over
+     */
+    public synchronized boolean isActive() {
+        return active && System.nanoTime() - (resumeAtNanos + rampUpNanos) < 0;
+    }
+
+    /**
+     * Time left before the gate lets requests through again.
+     *
+     * @return the remaining pause in milliseconds, or 0 when not paused
+     */
+    public synchronized long getRemainingPauseMillis() {
+        long remaining = resumeAtNanos - System.nanoTime();
+        return active && remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) : 0L;
+    }
+
+    /**
+     * Number of times the gate has been paused, that is the number of 429 responses it has seen.
+     *
+     * @return the pause count
+     */
+    public synchronized long getPauseCount() {
+        return pauseCount;
+    }
+}
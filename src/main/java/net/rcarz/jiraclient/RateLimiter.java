@@ -0,0 +1,148 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client-side token bucket that paces requests so that they stay under the rate limit of the server.
+ *
+ * The bucket is not configured up front: it learns its capacity and fill rate from the X-RateLimit-Limit,
+ * X-RateLimit-FillRate and X-RateLimit-Interval-Seconds headers Jira sends with its responses, and resynchronises
+ * its level with X-RateLimit-Remaining. Until the server has announced a fill rate, requests are not delayed.
+ *
+ * A limiter can be shared by several {@link RestClient} instances that talk to the same server with the same
+ * credentials.
+ */
+public class RateLimiter {
+
+    private double capacity = 0;
+    private double tokensPerNano = 0;
+    private double tokens = 0;
+    private long lastRefillNanos = 0;
+    private boolean learned = false;
+
+    /**
+     * Takes a token for a request about to be sent.
+     *
+     * @return how long, in milliseconds, the request should wait before being sent
+     */
+    public long reserve() {
+        return reserve(System.nanoTime());
+    }
+
+    synchronized long reserve(long nowNanos) {
+        if (!learned) {
+            return 0L;
+        }
+
+        refill(nowNanos);
+        tokens -= 1;
+
+        if (tokens >= 0) {
+            return 0L;
+        }
+
+        // The bucket is in debt: this request waits until the fill rate has paid back its token
+        return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil(-tokens / tokensPerNano)) + 1L;
+    }
+
+    /**
+     * Learns the limits of the server from the headers of a response. Responses without rate limit headers are
+     * ignored.
+     *
+     * @param response Any response received from the server
+     */
+    public void update(HttpResponse response) {
+        update(response, System.nanoTime());
+    }
+
+    synchronized void update(HttpResponse response, long nowNanos) {
+        long fillRate = getNumericHeader(response, "X-RateLimit-FillRate");
+        long intervalSeconds = getNumericHeader(response, "X-RateLimit-Interval-Seconds");
+        long limit = getNumericHeader(response, "X-RateLimit-Limit");
+        long remaining = getNumericHeader(response, "X-RateLimit-Remaining");
+
+        if (fillRate > 0) {
+            long intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds > 0 ? intervalSeconds : 1L);
+            refill(nowNanos);
+            tokensPerNano = (double) fillRate / intervalNanos;
+
+            if (!learned) {
+                learned = true;
+                lastRefillNanos = nowNanos;
+                tokens = limit > 0 ? limit : fillRate;
+            }
+        }
+
+        if (limit > 0) {
+            capacity = limit;
+            tokens = Math.min(tokens, capacity);
+        }
+
+        // The server has the authoritative count; the local one may not yet include requests sent by others
+        if (learned && remaining >= 0) {
+            tokens = Math.min(tokens, remaining);
+        }
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            tokens += (nowNanos - lastRefillNanos) * tokensPerNano;
+            if (capacity > 0) {
+                tokens = Math.min(tokens, capacity);
+            }
+            lastRefillNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Tells whether the limiter has learned the limits of the server yet.
+     *
+     * @return true once a fill rate has been received
+     */
+    public synchronized boolean isLearned() {
+        return learned;
+    }
+
+    /**
+     * Tokens currently available; negative when requests are waiting for the bucket to refill.
+     *
+     * @return the current level of the bucket
+     */
+    public synchronized double getAvailableTokens() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    /**
+     * Capacity of the bucket, as announced by the server.
+     *
+     * @return the capacity, or 0 when unknown
+     */
+    public synchronized double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Fill rate of the bucket, as announced by the server.
+     *
+     * @return the number of tokens added per second
+     */
+    public synchronized double getFillRatePerSecond() {
+        return tokensPerNano * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static long getNumericHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        if (header == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(header.getValue().trim());
+        } catch (NumberFormatException ignored) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical GETs running at the same time into a single request.
+ *
+ * A GET is identical to one already in flight when it has the same URI and is sent with the same credentials. It
+ * then waits for the response of the first one instead of being sent. The response is parsed once; when it is shared
+ * by several callers, each of them gets a copy of its own, so that a caller modifying its tree does not affect the
+ * others. GETs sent with per-call options are never coalesced, as their timeouts and deadline may differ.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Joins the request in flight for a key, or starts it with the given supplier when there is none.
+     */
+    CompletableFuture<JsonNode> call(String key, Supplier<CompletableFuture<JsonNode>> request) {
+        CompletableFuture<JsonNode> subscriber = new CompletableFuture<>();
+
+        // The map and the monitor of a flight are never held together: a flight is looked up first, then joined,
+        // and looked up again when it closed in between
+        Flight flight;
+        boolean leader;
+        while (true) {
+            Flight created = new Flight();
+            Flight current = flights.putIfAbsent(key, created);
+            flight = current != null ? current : created;
+            leader = current == null;
+            if (flight.subscribe(subscriber)) {
+                break;
+            }
+            flights.remove(key, flight);
+        }
+
+        requests.incrementAndGet();
+        if (!leader) {
+            coalesced.incrementAndGet();
+        }
+
+        Flight joined = flight;
+        subscriber.whenComplete((value, ex) -> {
+            if (subscriber.isCancelled() && joined.cancelIfAbandoned()) {
+                flights.remove(key, joined);
+            }
+        });
+
+        if (leader) {
+            CompletableFuture<JsonNode> source;
+            try {
+                source = request.get();
+            } catch (RuntimeException e) {
+                source = new CompletableFuture<>();
+                source.completeExceptionally(e);
+            }
+            source.whenComplete((value, ex) -> {
+                // Removed before the callers are completed, so that they never find their own request in flight
+                flights.remove(key, joined);
+                joined.complete(value, ex);
+            });
+            if (joined.start(source)) {
+                flights.remove(key, joined);
+            }
+        }
+
+        return subscriber;
+    }
+
+    /**
+     * @return the number of GETs that were eligible for coalescing
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of GETs answered with the response of an identical request, without being sent
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of distinct GETs currently in flight
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    private static class Flight {
+
+        private final List<CompletableFuture<JsonNode>> subscribers = new ArrayList<>();
+        private CompletableFuture<JsonNode> source;
+        private boolean closed;
+
+        /**
+         * @return false when the flight already closed, the caller must then start a new one
+         */
+        synchronized boolean subscribe(CompletableFuture<JsonNode> subscriber) {
+            if (closed) {
+                return false;
+            }
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        /**
+         * @return true when the request was cancelled, every caller having been cancelled before it started
+         */
+        boolean start(CompletableFuture<JsonNode> source) {
+            boolean cancel;
+            synchronized (this) {
+                this.source = source;
+                cancel = closeIfAbandoned();
+            }
+
+            // Cancelling completes the source, which runs its callbacks: never under the monitor
+            if (cancel) {
+                source.cancel(false);
+            }
+            return cancel;
+        }
+
+        void complete(JsonNode value, Throwable ex) {
+            List<CompletableFuture<JsonNode>> callers;
+            synchronized (this) {
+                closed = true;
+                callers = new ArrayList<>(subscribers);
+            }
+
+            // A lone caller gets the parsed tree, shared ones get a copy each
+            boolean shared = callers.size() > 1;
+            for (CompletableFuture<JsonNode> caller : callers) {
+                if (ex != null) {
+                    caller.completeExceptionally(ex);
+                } else {
+                    caller.complete(shared && value != null ? value.deepCopy() : value);
+                }
+            }
+        }
+
+        /**
+         * Cancels the request once every caller waiting for it has been cancelled.
+         *
+         * @return true when the request was cancelled
+         */
+        boolean cancelIfAbandoned() {
+            CompletableFuture<JsonNode> cancelled;
+            synchronized (this) {
+                cancelled = source != null && closeIfAbandoned() ? source : null;
+            }
+
+            if (cancelled != null) {
+                cancelled.cancel(false);
+            }
+            return cancelled != null;
+        }
+
+        private boolean closeIfAbandoned() {
+            if (closed) {
+                return false;
+            }
+            for (CompletableFuture<JsonNode> subscriber : subscribers) {
+                if (!subscriber.isCancelled()) {
+                    return false;
+                }
+            }
+            closed = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+/**
+ * Follows the requests sent by a {@link RestClient}, for example to record them as tracing spans. Listeners are added
+ * with {@link RestClient#addRequestListener(RequestListener)} and called in the order they were added.
+ *
+ * Each attempt of a request, retries and hedged copies included, is announced by {@link #beforeSend} and ends with
+ * either {@link #onResponse} or {@link #onFailure}; {@link #onRetry} tells that another attempt will follow. Times are
+ * measured from the start of the call, which includes the waits before retries, and from the start of the attempt.
+ * Every method has an empty default implementation. They are called from the threads sending the requests and must
+ * not block; an exception thrown by a listener is logged and does not affect the request.
+ */
+public interface RequestListener {
+
+    /**
+     * Called before an attempt is sent. Headers set here are sent with the attempt, so use setHeader rather than
+     * addHeader, as the same request is passed again for each retry.
+     *
+     * @param request Request about to be sent
+     * @param attempt Number of the attempt, 0 for the first one
+     * @param elapsedNanos Time since the start of the call
+     */
+    default void beforeSend(HttpRequest request, int attempt, long elapsedNanos) {
+    }
+
+    /**
+     * Called when the response headers of an attempt have been received, before its body is read.
+     *
+     * @param request Request sent
+     * @param response Response received
+     * @param attempt Number of the attempt, 0 for the first one
+     * @param latencyNanos Time since the attempt was sent
+     * @param elapsedNanos Time since the start of the call
+     */
+    default void onResponse(HttpRequest request, HttpResponse response, int attempt, long latencyNanos,
+                            long elapsedNanos) {
+    }
+
+    /**
+     * Called when an attempt got no response: a network error, a timeout, or an abort when the call is cancelled or
+     * its deadline expires.
+     *
+     * @param request Request sent
+     * @param failure Cause of the failure
+     * @param attempt Number of the attempt, 0 for the first one
+     * @param latencyNanos Time since the attempt was sent
+     * @param elapsedNanos Time since the start of the call
+     */
+    default void onFailure(HttpRequest request, Throwable failure, int attempt, long latencyNanos,
+                           long elapsedNanos) {
+    }
+
+    /**
+     * Called when an attempt is going to be retried.
+     *
+     * @param request Request to retry
+     * @param attempt Number of the attempt that failed
+     * @param status Status code of the failed attempt, or {@link RestMetrics#NO_RESPONSE}
+     * @param waitMillis Wait before the next attempt
+     */
+    default void onRetry(HttpRequest request, int attempt, int status, long waitMillis) {
+    }
+}
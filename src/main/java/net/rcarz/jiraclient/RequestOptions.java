@@ -0,0 +1,160 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeouts, deadline and extra headers of requests sent by {@link RestClient}, either for every request of a client,
+ * see {@link RestClient#setRequestOptions(RequestOptions)}, or for a single call. Settings of a call take precedence
+ * over those of the client, and settings given by neither use the defaults of the HTTP client.
+ *
+ * The connect and read timeouts bound each attempt. The deadline bounds the whole call, including the waits before
+ * retries: no retry is scheduled that could not start before it, and the request is aborted when it expires, the
+ * call failing with a {@link DeadlineExceededException}.
+ *
+ * The timeouts are set as the {@link RequestConfig} of each request, which the deprecated DefaultHttpClient ignores:
+ * they apply with a client built by HttpClientBuilder, such as the {@link ApacheHttpTransport} created from a
+ * {@link ConnectionPoolConfig}. The deadline applies with any client.
+ *
+ * Headers are added to those of the client, a header of the call replacing the client's header of the same name.
+ */
+public class RequestOptions {
+
+    private long connectTimeoutMillis = -1L;
+    private long readTimeoutMillis = -1L;
+    private long deadlineMillis = -1L;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * @param connectTimeout How long to wait for a connection to be established
+     * @param unit Unit of the timeout
+     */
+    public RequestOptions connectTimeout(long connectTimeout, TimeUnit unit) {
+        if (connectTimeout < 1) {
+            throw new IllegalArgumentException("connectTimeout must be at least 1");
+        }
+        this.connectTimeoutMillis = unit.toMillis(connectTimeout);
+        return this;
+    }
+
+    /**
+     * @param readTimeout How long to wait for data once connected
+     * @param unit Unit of the timeout
+     */
+    public RequestOptions readTimeout(long readTimeout, TimeUnit unit) {
+        if (readTimeout < 1) {
+            throw new IllegalArgumentException("readTimeout must be at least 1");
+        }
+        this.readTimeoutMillis = unit.toMillis(readTimeout);
+        return this;
+    }
+
+    /**
+     * @param deadline How long the whole call may take, retries included
+     * @param unit Unit of the deadline
+     */
+    public RequestOptions deadline(long deadline, TimeUnit unit) {
+        if (deadline < 1) {
+            throw new IllegalArgumentException("deadline must be at least 1");
+        }
+        this.deadlineMillis = unit.toMillis(deadline);
+        return this;
+    }
+
+    /**
+     * @param name Name of a header to send, for example a correlation id
+     * @param value Value of the header
+     */
+    public RequestOptions header(String name, String value) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name may not be empty");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("value may not be null");
+        }
+        this.headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * @return the connect timeout in milliseconds, or -1 when not set
+     */
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * @return the read timeout in milliseconds, or -1 when not set
+     */
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * @return the deadline in milliseconds, or -1 when not set
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Combines the options of a call with those of its client, either of which may be null.
+     */
+    static RequestOptions resolve(RequestOptions call, RequestOptions client) {
+        if (call == null || client == null) {
+            return call != null ? call : client;
+        }
+
+        RequestOptions resolved = new RequestOptions();
+        resolved.connectTimeoutMillis = firstSet(call.connectTimeoutMillis, client.connectTimeoutMillis);
+        resolved.readTimeoutMillis = firstSet(call.readTimeoutMillis, client.readTimeoutMillis);
+        resolved.deadlineMillis = firstSet(call.deadlineMillis, client.deadlineMillis);
+        resolved.headers.putAll(client.headers);
+        resolved.headers.putAll(call.headers);
+        return resolved;
+    }
+
+    private static long firstSet(long value, long fallback) {
+        return value >= 0 ? value : fallback;
+    }
+
+    /**
+     * Applies the headers and timeouts to a request, the timeouts as its request configuration.
+     */
+    void applyTo(HttpRequestBase req) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            req.setHeader(header.getKey(), header.getValue());
+        }
+
+        if (connectTimeoutMillis < 0 && readTimeoutMillis < 0) {
+            return;
+        }
+
+        RequestConfig.Builder config = req.getConfig() != null ?
+                RequestConfig.copy(req.getConfig()) : RequestConfig.custom();
+        if (connectTimeoutMillis >= 0) {
+            int timeout = (int) Math.min(Integer.MAX_VALUE, connectTimeoutMillis);
+            config.setConnectTimeout(timeout).setConnectionRequestTimeout(timeout);
+        }
+        if (readTimeoutMillis >= 0) {
+            int timeout = (int) Math.min(Integer.MAX_VALUE, readTimeoutMillis);
+            config.setSocketTimeout(timeout);
+        }
+        req.setConfig(config.build());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("connectTimeout=%d, readTimeout=%d, deadline=%d, headers=%s",
+                connectTimeoutMillis, readTimeoutMillis, deadlineMillis, headers.keySet());
+    }
+}
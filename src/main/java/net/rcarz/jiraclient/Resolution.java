@@ -69,7 +69,8 @@ public class Resolution extends Resource {
         JsonNode result = null;
 
         try {
-            result = restclient.get(getBaseUri() + "resolution/" + id);
+            result = MetadataCache.get(restclient, MetadataCache.Kind.RESOLUTION, id,
+                    () -> restclient.get(getBaseUri() + "resolution/" + id));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve resolution " + id, ex);
         }
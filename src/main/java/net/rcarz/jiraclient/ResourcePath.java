@@ -0,0 +1,61 @@
+package net.rcarz.jiraclient;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the path of a request into the segments naming the resource, which both {@link CircuitBreaker} and
+ * {@link RestMetrics} group requests by.
+ */
+final class ResourcePath {
+
+    private ResourcePath() {
+    }
+
+    /**
+     * Gets the segments of the path of a request after the path of the base URI, the context path of a Jira served
+     * at "https://host/jira" for example, and after the "rest/api/version" prefix.
+     *
+     * @param base Base URI of the client, or null when the server is at the root of its host
+     * @param uri URI of the request
+     * @return the non-empty segments naming the resource
+     */
+    static List<String> segmentsOf(URI base, URI uri) {
+        String path = uri.getPath() != null ? uri.getPath() : "";
+
+        String contextPath = base != null && base.getPath() != null ? trimSlashes(base.getPath()) : "";
+        if (!contextPath.isEmpty()) {
+            String trimmed = trimSlashes(path);
+            if (trimmed.equals(contextPath)) {
+                path = "";
+            } else if (trimmed.startsWith(contextPath + "/")) {
+                path = trimmed.substring(contextPath.length() + 1);
+            }
+        }
+
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+
+        if (!segments.isEmpty() && "rest".equals(segments.get(0))) {
+            segments.subList(0, Math.min(3, segments.size())).clear();
+        }
+        return segments;
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(start, end);
+    }
+}
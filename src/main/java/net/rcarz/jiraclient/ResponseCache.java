@@ -0,0 +1,171 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of GET responses revalidated with the ETag and Last-Modified validators of the server.
+ *
+ * Once a response carrying a validator has been cached, later GETs of the same URI are sent with If-None-Match or
+ * If-Modified-Since, and a 304 Not Modified answer is served from the cache without transferring nor parsing the
+ * body again. Entries are always revalidated, so the cache never returns data the server has not confirmed.
+ *
+ * The cache holds at most maxEntries responses and evicts the least recently used one. Since entries are keyed by
+ * URI only, a cache must not be shared by clients using different credentials.
+ */
+public class ResponseCache {
+
+    private final int maxEntries;
+    private final Map<String, CachedResponse> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long revalidations = 0;
+    private long evictions = 0;
+
+    public ResponseCache() {
+        this(1000);
+    }
+
+    /**
+     * @param maxEntries Largest number of responses kept
+     */
+    public ResponseCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Adds the validators of the cached response, if any, to a GET about to be sent.
+     */
+    synchronized void prepare(HttpRequest request, URI uri) {
+        CachedResponse entry = entries.get(uri.toString());
+        if (entry == null) {
+            misses++;
+            return;
+        }
+
+        revalidations++;
+        if (entry.etag != null && !request.containsHeader("If-None-Match")) {
+            request.addHeader("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null && !request.containsHeader("If-Modified-Since")) {
+            request.addHeader("If-Modified-Since", entry.lastModified);
+        }
+    }
+
+    /**
+     * Gets the cached response confirmed by a 304 answer.
+     *
+     * @return a copy of the cached tree, or null when the entry was evicted meanwhile
+     */
+    synchronized JsonNode getNotModified(URI uri) {
+        CachedResponse entry = entries.get(uri.toString());
+        if (entry == null) {
+            return null;
+        }
+        hits++;
+        return entry.tree.deepCopy();
+    }
+
+    /**
+     * Caches a successful response, provided the server sent a validator with it.
+     */
+    synchronized void put(URI uri, HttpResponse response, JsonNode tree) {
+        String etag = getHeader(response, "ETag");
+        String lastModified = getHeader(response, "Last-Modified");
+
+        if (tree == null || (etag == null && lastModified == null)) {
+            entries.remove(uri.toString());
+            return;
+        }
+
+        // The caller gets the parsed tree, the cache keeps a copy of its own
+        entries.put(uri.toString(), new CachedResponse(etag, lastModified, tree.deepCopy()));
+    }
+
+    /**
+     * Removes the cached response of a URI.
+     *
+     * @param uri URI of the resource
+     */
+    public synchronized void invalidate(URI uri) {
+        entries.remove(uri.toString());
+    }
+
+    /**
+     * Removes every cached response.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of GETs answered with a 304 and served from the cache
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of GETs sent without validators, as nothing was cached for their URI
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the number of GETs sent with validators
+     */
+    public synchronized long getRevalidationCount() {
+        return revalidations;
+    }
+
+    /**
+     * @return the number of responses evicted to stay within maxEntries
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    private static String getHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null && !header.getValue().isEmpty() ? header.getValue() : null;
+    }
+
+    private static class CachedResponse {
+
+        private final String etag;
+        private final String lastModified;
+        private final JsonNode tree;
+
+        CachedResponse(String etag, String lastModified, JsonNode tree) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.tree = tree;
+        }
+    }
+}
@@ -24,12 +24,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import org.apache.http.Header;
-import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.NameValuePair;
+import org.apache.http.ParseException;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
@@ -37,6 +38,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.ByteArrayBody;
@@ -44,34 +46,56 @@ import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 
 /**
  * A simple REST client that speaks JSON.
  */
-public class RestClient {
+public class RestClient implements Closeable {
 
     private static final Logger logger = LoggerFactory.getLogger(RestClient.class);
 
-    private HttpClient httpClient = null;
+    private HttpTransport transport = null;
     private ICredentials creds = null;
     private URI uri = null;
     private HttpContext httpContext = null;
@@ -80,8 +104,37 @@ public class RestClient {
     private boolean enableRetryOnRateLimit = false;
     private static final int MAX_RETRIES = 10;
 
-    private final ExecutorService executor = Executors.newCachedThreadPool();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private volatile RateLimiter rateLimiter = null;
+    private volatile RateLimitGate rateLimitGate = new RateLimitGate();
+    private volatile RetryPolicy retryPolicy = null;
+    private volatile CircuitBreaker circuitBreaker = null;
+    private volatile HedgingPolicy hedgingPolicy = null;
+
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+    private volatile RequestOptions requestOptions = null;
+
+    private static final int MIN_COMPRESSED_PAYLOAD = 1024;
+    private volatile boolean compressRequests = false;
+    private volatile ResponseCache responseCache = null;
+    private volatile RequestCoalescer requestCoalescer = null;
+    private volatile RestMetrics metrics = null;
+    private final List<RequestListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile MetadataCache metadataCache = null;
+    private volatile ServerCapabilities serverCapabilities = null;
+    private final Object serverCapabilitiesLock = new Object();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong compressedResponses = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    private final ExecutorService executor;
+    private final Executor requestExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsExecutor;
+    private final boolean ownsScheduler;
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final Set<PendingWait> pendingWaits = ConcurrentHashMap.newKeySet();
 
     /**
      * Creates a REST client instance with a URI.
@@ -94,10 +147,7 @@ public class RestClient {
     }
 
     public RestClient(HttpClient httpclient, ICredentials creds, URI uri) {
-        this.httpClient = httpclient;
-        this.creds = creds;
-        this.uri = uri;
-        this.httpContext = new BasicHttpContext();
+        this(httpclient, creds, uri, new BasicHttpContext());
     }
 
     /**
@@ -108,15 +158,74 @@ public class RestClient {
      * @param uri Base URI of the remote REST service
      */
     public RestClient(HttpClient httpclient, ICredentials creds, URI uri, HttpContext httpContext) {
-        this.httpClient = httpclient;
-        this.creds = creds;
-        this.uri = uri;
-        this.httpContext = httpContext;
+        this(httpclient, creds, uri, httpContext, false);
     }
 
     public RestClient(HttpClient httpclient, ICredentials creds, URI uri, HttpContext httpContext, boolean enableRetryOnRateLimit) {
-        this(httpclient, creds, uri, httpContext);
+        this(httpclient, creds, uri, httpContext, enableRetryOnRateLimit, new ExecutorConfig());
+    }
+
+    /**
+     * Creates an authenticated REST client instance with a URI and custom thread pools.
+     *
+     * @param httpclient Underlying HTTP client to use
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     * @param httpContext HTTP context shared by the requests, or null to use a new one per request
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig Thread pools used to execute requests and to schedule retries
+     */
+    public RestClient(HttpClient httpclient, ICredentials creds, URI uri, HttpContext httpContext,
+                      boolean enableRetryOnRateLimit, ExecutorConfig executorConfig) {
+        this(new ApacheHttpTransport(httpclient), creds, uri, httpContext, enableRetryOnRateLimit, executorConfig);
+    }
+
+    /**
+     * Creates an authenticated REST client instance over a custom transport.
+     *
+     * @param transport Transport used to send the requests
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig Thread pools used to execute requests and to schedule retries
+     */
+    public RestClient(HttpTransport transport, ICredentials creds, URI uri, boolean enableRetryOnRateLimit,
+                      ExecutorConfig executorConfig) {
+        this(transport, creds, uri, null, enableRetryOnRateLimit, executorConfig);
+    }
+
+    /**
+     * Creates an authenticated REST client instance over a custom transport, sharing an HTTP context.
+     *
+     * @param transport Transport used to send the requests
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     * @param httpContext HTTP context shared by the requests, or null to use a new one per request
+     * @param enableRetryOnRateLimit Whether requests rejected with a 429 are retried
+     * @param executorConfig Thread pools used to execute requests and to schedule retries
+     */
+    public RestClient(HttpTransport transport, ICredentials creds, URI uri, HttpContext httpContext,
+                      boolean enableRetryOnRateLimit, ExecutorConfig executorConfig) {
+        this.transport = transport;
+        this.creds = creds;
+        this.uri = uri;
+        this.httpContext = httpContext;
         this.enableRetryOnRateLimit = enableRetryOnRateLimit;
+
+        this.ownsExecutor = executorConfig.getExecutor() == null;
+        this.executor = ownsExecutor ? executorConfig.createExecutor(rejectedTasks) : executorConfig.getExecutor();
+        this.ownsScheduler = executorConfig.getScheduler() == null;
+        this.scheduler = ownsScheduler ? executorConfig.createScheduler() : executorConfig.getScheduler();
+
+        // Counts the requests being executed, which is the only activity metric some executors can offer
+        this.requestExecutor = task -> executor.execute(() -> {
+            activeTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeTasks.decrementAndGet();
+            }
+        });
     }
 
     /**
@@ -160,21 +269,17 @@ public class RestClient {
     }
 
     private JsonNode request(HttpRequestBase req) throws RestException, IOException {
-        return httpContext == null ? request(req, new BasicHttpContext()) : request(req, httpContext);
+        return request(req, null);
     }
 
-    private JsonNode request(HttpRequestBase req, HttpContext ctx) throws RestException, IOException {
-        req.addHeader("Accept", "application/json");
-
-        if (creds != null) {
-            creds.authenticate(req);
-        }
-
+    private JsonNode request(HttpRequestBase req, RequestOptions options) throws RestException, IOException {
+        // Launches the request asynchronously and waits until the CompletableFuture is completed, which happens at
+        // the latest when its deadline expires. An interrupted caller cancels the request
+        CompletableFuture<JsonNode> call = requestAsync(req, options);
         try {
-            // Launches requestAsyncInternal and wait until the CompletableFuture is completed
-            CompletableFuture<JsonNode> futureResult = requestAsyncInternal(req, ctx, 0);
-            return futureResult.get();
+            return call.get();
         } catch (InterruptedException e) {
+            call.cancel(false);
             Thread.currentThread().interrupt();
             throw new IOException(e);
         } catch (ExecutionException e) {
@@ -183,14 +288,242 @@ public class RestClient {
         }
     }
 
-    private static Throwable handleExecutionException(ExecutionException e) throws RestException, IOException {
-        Throwable cause = e.getCause();
+    private CompletableFuture<JsonNode> requestAsync(HttpRequestBase req) {
+        return requestAsync(req, null);
+    }
+
+    private CompletableFuture<JsonNode> requestAsync(HttpRequestBase req, RequestOptions callOptions) {
+        HttpContext ctx = httpContext == null ? new BasicHttpContext() : httpContext;
+        RequestOptions options = RequestOptions.resolve(callOptions, requestOptions);
+
+        req.addHeader("Accept", "application/json");
+        if (!req.containsHeader("Accept-Encoding")) {
+            req.addHeader("Accept-Encoding", "gzip, deflate");
+        }
+
+        if (creds != null) {
+            creds.authenticate(req);
+        }
+
+        // Only this first submission may run in the calling thread, the retries are submitted by the scheduler
+        RequestCoalescer coalescer = requestCoalescer;
+        if (coalescer != null && callOptions == null && HttpGet.METHOD_NAME.equals(req.getMethod())) {
+            return ExecutorConfig.submitFromCaller(
+                    () -> coalescer.call(getCoalescingKey(req), () -> send(req, ctx, options)));
+        }
+
+        return ExecutorConfig.submitFromCaller(() -> send(req, ctx, options));
+    }
+
+    /**
+     * Identifies a GET by its URI and by the credential headers it is sent with, so that requests made on behalf of
+     * different users are never coalesced.
+     */
+    private static String getCoalescingKey(HttpRequestBase req) {
+        StringBuilder key = new StringBuilder(req.getURI().toString());
+        for (Header header : req.getAllHeaders()) {
+            if ("Authorization".equalsIgnoreCase(header.getName()) || "Cookie".equalsIgnoreCase(header.getName())) {
+                key.append('\n').append(header.getName()).append(": ").append(header.getValue());
+            }
+        }
+        return key.toString();
+    }
+
+    private CompletableFuture<JsonNode> send(HttpRequestBase req, HttpContext ctx, RequestOptions options) {
+        ResponseCache cache = responseCache;
+        if (cache != null && HttpGet.METHOD_NAME.equals(req.getMethod())) {
+            cache.prepare(req, req.getURI());
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = NO_DEADLINE;
+        if (options != null) {
+            options.applyTo(req);
+            if (options.getDeadlineMillis() >= 0) {
+                deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(options.getDeadlineMillis());
+            }
+        }
+
+        CompletableFuture<JsonNode> result = requestAsyncInternal(req, ctx, 0, startNanos, deadlineNanos);
 
-        // If the call to httpClient.execute throws a IOException
-        if (cause instanceof CompletionException && cause.getCause() != null) {
-            cause = cause.getCause();
+        HedgingPolicy hedging = hedgingPolicy;
+        if (hedging != null && HttpGet.METHOD_NAME.equals(req.getMethod())) {
+            result = hedge(req, result, hedging, startNanos, deadlineNanos);
         }
 
+        if (deadlineNanos != NO_DEADLINE) {
+            result = withDeadline(req, result, options.getDeadlineMillis());
+        }
+
+        CompletableFuture<JsonNode> call = unwrapFailures(result);
+
+        // Cancelling the call aborts the request in flight, which releases its connection, or the wait before its
+        // next attempt
+        call.whenComplete((value, ex) -> {
+            if (call.isCancelled()) {
+                req.abort();
+            }
+        });
+
+        return call;
+    }
+
+    /**
+     * Returns a future that fails with a DeadlineExceededException, and aborts the request, when the call has not
+     * completed before its deadline.
+     */
+    private CompletableFuture<JsonNode> withDeadline(HttpRequestBase req, CompletableFuture<JsonNode> call,
+                                                     long deadlineMillis) {
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+
+        ScheduledFuture<?> expiry;
+        try {
+            expiry = scheduler.schedule(() -> {
+                if (result.completeExceptionally(new DeadlineExceededException(String.format(
+                        "Request to uri %s did not complete within its %d ms deadline", req.getURI(), deadlineMillis),
+                        deadlineMillis))) {
+                    req.abort();
+                }
+            }, deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return call;
+        }
+
+        call.whenComplete((value, ex) -> {
+            expiry.cancel(false);
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(value);
+            }
+        });
+        propagateCancellation(result, call);
+
+        return result;
+    }
+
+    /**
+     * @return the time left before a deadline, or -1 when there is none
+     */
+    private static long remainingMillis(long deadlineNanos) {
+        if (deadlineNanos == NO_DEADLINE) {
+            return -1L;
+        }
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Sends a copy of a GET that is still running after the hedging delay, and completes with the first response.
+     * The request that loses the race is aborted.
+     */
+    private CompletableFuture<JsonNode> hedge(HttpRequestBase req, CompletableFuture<JsonNode> primary,
+                                              HedgingPolicy hedging, long startNanos, long deadlineNanos) {
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+
+        // Number of requests that may still complete the result, the result fails once they have all failed
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean settled = new AtomicBoolean();
+        hedging.onRequest();
+
+        ScheduledFuture<?> hedgeTask;
+        try {
+            hedgeTask = scheduler.schedule(() -> {
+                pending.incrementAndGet();
+                if (primary.isDone() || !canHedge() || !hedging.tryAcquireHedge()) {
+                    if (pending.decrementAndGet() == 0) {
+                        primary.whenComplete((value, ex) -> result.completeExceptionally(ex));
+                    }
+                    return;
+                }
+
+                HttpGet copy = new HttpGet(req.getURI());
+                copy.setHeaders(req.getAllHeaders());
+                copy.setConfig(req.getConfig());
+                HttpContext ctx = httpContext == null ? new BasicHttpContext() : httpContext;
+                logger.debug("Request to uri {} is slow, sending a hedged copy", req.getURI());
+
+                requestAsyncInternal(copy, ctx, 0, System.nanoTime(), deadlineNanos).whenComplete((value, ex) -> {
+                    if (ex == null) {
+                        if (settled.compareAndSet(false, true)) {
+                            hedging.onHedgeWin();
+                            hedging.recordLatency(System.nanoTime() - startNanos);
+                            req.abort();
+                            result.complete(value);
+                        }
+                    } else if (pending.decrementAndGet() == 0) {
+                        result.completeExceptionally(ex);
+                    }
+                });
+                result.whenComplete((value, ex) -> copy.abort());
+            }, hedging.getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return primary;
+        }
+
+        propagateCancellation(result, primary);
+        primary.whenComplete((value, ex) -> {
+            hedgeTask.cancel(false);
+            if (ex == null) {
+                if (settled.compareAndSet(false, true)) {
+                    hedging.recordLatency(System.nanoTime() - startNanos);
+                    result.complete(value);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Tells whether a hedge fits in the rate limit: hedges are never sent while requests are being held back.
+     */
+    private boolean canHedge() {
+        RateLimiter limiter = rateLimiter;
+        return !rateLimitGate.isActive() && (limiter == null || !limiter.isLearned() || limiter.getAvailableTokens() >= 1);
+    }
+
+    /**
+     * Returns a future that fails with the original cause (RestException, IOException...) rather than with the
+     * CompletionException wrappers added by the intermediate stages.
+     */
+    private static <T> CompletableFuture<T> unwrapFailures(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        future.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrapCompletionException(ex));
+            } else {
+                result.complete(value);
+            }
+        });
+        propagateCancellation(result, future);
+
+        return result;
+    }
+
+    /**
+     * Cancels a source future when the future derived from it is cancelled.
+     */
+    private static void propagateCancellation(CompletableFuture<?> derived, CompletableFuture<?> source) {
+        derived.whenComplete((value, ex) -> {
+            if (derived.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+    }
+
+    private static Throwable unwrapCompletionException(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    private static Throwable handleExecutionException(ExecutionException e) throws RestException, IOException {
+        Throwable cause = unwrapCompletionException(e.getCause());
+
         // If handleResponse throws a RestException
         if (cause instanceof RestException) {
             throw (RestException) cause;
@@ -210,44 +543,263 @@ public class RestClient {
         return cause;
     }
 
-    private CompletableFuture<JsonNode> requestAsyncInternal(HttpRequestBase req, HttpContext ctx, int attempt) {
+    private CompletableFuture<JsonNode> requestAsyncInternal(HttpRequestBase req, HttpContext ctx, int attempt,
+                                                             long startNanos, long deadlineNanos) {
+        // Holds the request back while the server is rate limiting this client
+        long pause = rateLimitGate.admit();
+
+        if (pause > 0) {
+            logger.debug("Request to uri {}, attempt {} held back after a 429, sending in {} ms", req.getURI(), attempt, pause);
+            return schedule(req, () -> pace(req, ctx, attempt, startNanos, deadlineNanos), pause);
+        }
+
+        return pace(req, ctx, attempt, startNanos, deadlineNanos);
+    }
+
+    private CompletableFuture<JsonNode> pace(HttpRequestBase req, HttpContext ctx, int attempt, long startNanos,
+                                             long deadlineNanos) {
+        // Holds the request back when the rate limiter expects the server to reject it
+        RateLimiter limiter = rateLimiter;
+        long delay = limiter != null ? limiter.reserve() : 0L;
+
+        if (delay > 0) {
+            logger.debug("Request to uri {}, attempt {} paced by the rate limiter, sending in {} ms", req.getURI(), attempt, delay);
+            return schedule(req, () -> execute(req, ctx, attempt, startNanos, deadlineNanos), delay);
+        }
+
+        return execute(req, ctx, attempt, startNanos, deadlineNanos);
+    }
+
+    private CompletableFuture<JsonNode> execute(HttpRequestBase req, HttpContext ctx, int attempt, long startNanos,
+                                                long deadlineNanos) {
+
+        // Fails fast while the endpoint family of the request is known to be failing
+        CircuitBreaker breaker = circuitBreaker;
+        String circuit = breaker != null ? CircuitBreaker.circuitFor(uri, req.getURI()) : null;
+        if (breaker != null) {
+            long retryAfter = breaker.tryAcquire(circuit, System.nanoTime());
+            if (retryAfter > 0) {
+                CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
+                failedFuture.completeExceptionally(new CircuitBreakerOpenException(circuit, retryAfter));
+                return failedFuture;
+            }
+        }
+
+        // Launches the request through the transport, by default using a thread from the executor pool
+        long attemptStart = System.nanoTime();
+        notifyListeners(listener -> listener.beforeSend(req, attempt, attemptStart - startNanos));
+        CompletableFuture<HttpResponse> futureResponse;
+        try {
+            futureResponse = transport.executeAsync(req, ctx, requestExecutor);
+        } catch (RejectedExecutionException e) {
+            if (breaker != null) {
+                breaker.release(circuit);
+            }
+            if (!ownsExecutor) {
+                rejectedTasks.incrementAndGet();
+            }
+            IOException failure = new IOException(
+                    String.format("Request to uri %s rejected, the request pool is saturated", req.getURI()), e);
+            long now = System.nanoTime();
+            notifyListeners(listener -> listener.onFailure(req, failure, attempt, now - attemptStart, now - startNanos));
+            CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(failure);
+            return failedFuture;
+        }
+
+        return futureResponse
+                .handle((response, ex) -> {
+                    long now = System.nanoTime();
+                    if (response != null) {
+                        notifyListeners(listener -> listener.onResponse(req, response, attempt, now - attemptStart,
+                                now - startNanos));
+                    } else {
+                        Throwable failure = unwrapCompletionException(ex);
+                        notifyListeners(listener -> listener.onFailure(req, failure, attempt, now - attemptStart,
+                                now - startNanos));
+                    }
+                    RestMetrics m = metrics;
+                    if (m != null && !req.isAborted()) {
+                        m.onAttempt(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()),
+                                response != null ? response.getStatusLine().getStatusCode() : RestMetrics.NO_RESPONSE,
+                                System.nanoTime() - attemptStart);
+                    }
+                    if (breaker != null) {
+                        // An aborted request, such as the loser of a hedge, says nothing about the endpoint
+                        if (req.isAborted()) {
+                            breaker.release(circuit);
+                        } else {
+                            recordOutcome(breaker, circuit, attemptStart, response);
+                        }
+                    }
+                    return ex != null
+                            ? onFailure(req, ctx, attempt, startNanos, deadlineNanos, unwrapCompletionException(ex))
+                            : onResponse(req, ctx, attempt, startNanos, deadlineNanos, response);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private void notifyListeners(Consumer<RequestListener> event) {
+        for (RequestListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.warn("Request listener {} failed", listener, e);
+            }
+        }
+    }
+
+    private static void recordOutcome(CircuitBreaker breaker, String circuit, long attemptStart, HttpResponse response) {
+        long now = System.nanoTime();
+
+        // Only server errors and network errors tell that the endpoint is unhealthy, a 4xx is the caller's problem
+        if (response == null || response.getStatusLine().getStatusCode() >= 500) {
+            breaker.onFailure(circuit, now);
+        } else {
+            breaker.onSuccess(circuit, now - attemptStart, now);
+        }
+    }
+
+    private CompletableFuture<JsonNode> onResponse(HttpRequestBase req, HttpContext ctx, int attempt, long startNanos,
+                                                   long deadlineNanos, HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+
+        RateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            limiter.update(response);
+        }
+
+        RestMetrics m = metrics;
+        if (m != null && status == 429) {
+            m.onRateLimited(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()));
+        }
 
-        // Launches the request using a thread from the executor pool
-        CompletableFuture<HttpResponse> futureResponse = CompletableFuture.supplyAsync(() -> {
+        // If the status response is a 429 (Rate Limit), we wait a time and then retry (until MAX_RETRIES at most)
+        if (status == 429 && enableRetryOnRateLimit && attempt < MAX_RETRIES) {
+            // The rejected response is discarded, so its connection must go back to the pool before retrying
+            EntityUtils.consumeQuietly(response.getEntity());
             try {
-                return httpClient.execute(req, ctx);
-            } catch (IOException e) {
-                throw new CompletionException(e);
+                long waitTime = RetryWaitCalculator.calculateWaitTimeMillis(response, attempt,
+                        remainingMillis(deadlineNanos));
+                logger.info("Request to uri {}, attempt {} received a 429 response (Rate Limit), retry in {} ms...", req.getURI(), attempt, waitTime);
+                if (m != null) {
+                    m.onRetry(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()), status);
+                }
+                notifyListeners(listener -> listener.onRetry(req, attempt, status, waitTime));
+
+                // The wait applies to every request of the client, the retry included, through the gate
+                rateLimitGate.pause(waitTime);
+                return requestAsyncInternal(req, ctx, attempt + 1, startNanos, deadlineNanos);
+            } catch (IOException internalException) {
+                String exceptionMessage = String.format("Request to uri %s, attempt %d. %s", req.getURI(), attempt, internalException.getMessage());
+                CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
+                failedFuture.completeExceptionally(new IOException(exceptionMessage));
+                return failedFuture;
             }
-        }, executor);
-
-        return futureResponse.thenCompose(response -> {
-            int status = response.getStatusLine().getStatusCode();
-
-            // If the status response is a 429 (Rate Limit), we wait a time and then retry (until MAX_RETRIES at most)
-            if (status == 429 && enableRetryOnRateLimit && attempt < MAX_RETRIES) {
-                try {
-                    long waitTime = RetryWaitCalculator.calculateWaitTimeMillis(response, attempt);
-                    logger.info("Request to uri {}, attempt {} received a 429 response (Rate Limit), retry in {} ms...", req.getURI(), attempt, waitTime);
-                    return scheduleRetry(req, ctx, attempt + 1, waitTime);
-                } catch (IOException internalException) {
-                    String exceptionMessage = String.format("Request to uri %s, attempt %d. %s", req.getURI(), attempt, internalException.getMessage());
-                    CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
-                    failedFuture.completeExceptionally(new IOException(exceptionMessage));
-                    return failedFuture;
+        }
+
+        if (status == 429) {
+            pauseAfterRateLimit(response);
+        }
+
+        // Transient server errors (502, 503, 504 by default) are retried when the retry policy allows it
+        RetryPolicy policy = retryPolicy;
+        if (status != 429 && policy != null && policy.shouldRetry(req, response, attempt)) {
+            long waitTime = getRetryWaitTime(policy, response, attempt, startNanos, deadlineNanos);
+            if (waitTime >= 0) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                logger.info("Request to uri {}, attempt {} received a {} response, retry in {} ms...", req.getURI(), attempt, status, waitTime);
+                if (m != null) {
+                    m.onRetry(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()), status);
                 }
-            } else {
-                if (attempt > 0) {
-                    logger.info("Request to URI {} finished with status {} in attempt {}", req.getURI(), status, attempt);
+                notifyListeners(listener -> listener.onRetry(req, attempt, status, waitTime));
+                return schedule(req, () -> requestAsyncInternal(req, ctx, attempt + 1, startNanos, deadlineNanos), waitTime);
+            }
+        }
+
+        // A 304 confirms the cached response, whose validators were sent with the request. When that response was
+        // evicted or invalidated meanwhile, the GET is sent once more without validators to get the full body
+        ResponseCache cache = HttpGet.METHOD_NAME.equals(req.getMethod()) ? responseCache : null;
+        if (cache != null && status == 304) {
+            JsonNode cached = cache.getNotModified(req.getURI());
+            if (cached != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                return CompletableFuture.completedFuture(cached);
+            }
+            if (req.containsHeader("If-None-Match") || req.containsHeader("If-Modified-Since")) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                logger.debug("Request to uri {} received a 304 but its cached response is gone, sending it again",
+                        req.getURI());
+                req.removeHeaders("If-None-Match");
+                req.removeHeaders("If-Modified-Since");
+                return requestAsyncInternal(req, ctx, attempt + 1, startNanos, deadlineNanos);
+            }
+        }
+
+        if (attempt > 0) {
+            logger.info("Request to URI {} finished with status {} in attempt {}", req.getURI(), status, attempt);
+        }
+        return handleResponseAndWrap(req, response);
+    }
+
+    private CompletableFuture<JsonNode> onFailure(HttpRequestBase req, HttpContext ctx, int attempt, long startNanos,
+                                                  long deadlineNanos, Throwable failure) {
+        // Network errors (connection reset, timeout...) are retried when the retry policy allows it
+        RetryPolicy policy = retryPolicy;
+        if (failure instanceof IOException && !req.isAborted() && policy != null && policy.shouldRetry(req, (IOException) failure, attempt)) {
+            long waitTime = getRetryWaitTime(policy, null, attempt, startNanos, deadlineNanos);
+            if (waitTime >= 0) {
+                logger.info("Request to uri {}, attempt {} failed ({}), retry in {} ms...", req.getURI(), attempt, failure.toString(), waitTime);
+                RestMetrics m = metrics;
+                if (m != null) {
+                    m.onRetry(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()), RestMetrics.NO_RESPONSE);
                 }
-                return handleResponseAndWrap(response);
+                notifyListeners(listener -> listener.onRetry(req, attempt, RestMetrics.NO_RESPONSE, waitTime));
+                return schedule(req, () -> requestAsyncInternal(req, ctx, attempt + 1, startNanos, deadlineNanos), waitTime);
             }
-        });
+        }
+
+        CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
+        failedFuture.completeExceptionally(failure);
+        return failedFuture;
+    }
+
+    /**
+     * Returns the wait before the next attempt, or -1 when the retry would go beyond the retry budget or the deadline
+     * of the request.
+     */
+    private long getRetryWaitTime(RetryPolicy policy, HttpResponse response, int attempt, long startNanos,
+                                  long deadlineNanos) {
+        long waitTime;
+        try {
+            waitTime = RetryWaitCalculator.checkDeadline(policy.getWaitTimeMillis(response, attempt),
+                    remainingMillis(deadlineNanos));
+        } catch (IOException e) {
+            logger.debug("Not retrying: {}", e.getMessage());
+            return -1L;
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (elapsed + waitTime > policy.getMaxRetryTimeMillis()) {
+            logger.debug("Not retrying: the retry budget of {} ms is spent", policy.getMaxRetryTimeMillis());
+            return -1L;
+        }
+
+        return waitTime;
+    }
+
+    private void pauseAfterRateLimit(HttpResponse response) {
+        try {
+            rateLimitGate.pause(RetryWaitCalculator.calculateWaitTimeMillis(response, 0));
+        } catch (IOException e) {
+            // The server asks for a wait so long that the request fails anyway, the other requests will find out too
+            logger.debug("Not pausing after a 429 response: {}", e.getMessage());
+        }
     }
 
-    private CompletableFuture<JsonNode> handleResponseAndWrap(HttpResponse response) {
+    private CompletableFuture<JsonNode> handleResponseAndWrap(HttpRequestBase req, HttpResponse response) {
         try {
-            return CompletableFuture.completedFuture(handleResponse(response));
+            return CompletableFuture.completedFuture(handleResponse(req, response));
         } catch (IOException | RestException e) {
             CompletableFuture<JsonNode> failedFuture = new CompletableFuture<>();
             failedFuture.completeExceptionally(e);
@@ -255,76 +807,241 @@ public class RestClient {
         }
     }
 
-    private CompletableFuture<JsonNode> scheduleRetry(HttpRequestBase req, HttpContext ctx, int nextAttempt, long waitTime) {
-        CompletableFuture<JsonNode> futureRetry = new CompletableFuture<>();
+    private CompletableFuture<JsonNode> schedule(HttpRequestBase req, Supplier<CompletableFuture<JsonNode>> task,
+                                                 long waitTime) {
+        CompletableFuture<JsonNode> futureResult = new CompletableFuture<>();
+
+        // Waits are tracked until their task runs, so that closing the client can fail those it drops
+        PendingWait wait = new PendingWait(req, futureResult);
+        pendingWaits.add(wait);
+        futureResult.whenComplete((result, ex) -> pendingWaits.remove(wait));
+
+        // Aborting the request while it waits removes the task from the scheduler. The cancellable is registered
+        // before scheduling, so that it never replaces the one the HTTP client sets once the task runs
+        AtomicReference<ScheduledFuture<?>> scheduled = new AtomicReference<>();
+        req.setCancellable(() -> {
+            ScheduledFuture<?> waiting = scheduled.get();
+            if (waiting != null && waiting.cancel(false)) {
+                futureResult.cancel(false);
+            }
+            return true;
+        });
+
+        // Schedule the task after 'waitTime' as an alternative to Thread.sleep to avoid blocking threads sleeping
+        long scheduledAt = System.nanoTime();
+        try {
+            scheduled.set(scheduler.schedule(() -> {
+                if (!wait.claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                if (req.isAborted()) {
+                    futureResult.cancel(false);
+                    return;
+                }
+
+                RestMetrics m = metrics;
+                if (m != null) {
+                    m.onBackoff(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt));
+                }
 
-        // Schedule a retry after 'waitTime' as an alternative to Thread.sleep to avoid blocking threads sleeping
-        scheduler.schedule(() -> {
+                task.get()
+                        .whenComplete((result, ex) -> {
+                            if (ex != null) {
+                                futureResult.completeExceptionally(ex);
+                            } else {
+                                futureResult.complete(result);
+                            }
+                        });
+
+            }, waitTime, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            futureResult.completeExceptionally(new IOException(
+                    String.format("Request to uri %s rejected, the client is closed", req.getURI()), e));
+        }
 
-            requestAsyncInternal(req, ctx, nextAttempt)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            futureRetry.completeExceptionally(ex);
-                        } else {
-                            futureRetry.complete(result);
-                        }
-                    });
+        return futureResult;
+    }
 
-        }, waitTime, TimeUnit.MILLISECONDS);
+    /**
+     * A request waiting in the scheduler for its next attempt. Whoever claims it first, the task or the closing
+     * client, completes its future.
+     */
+    private static class PendingWait {
+
+        private final HttpRequestBase req;
+        private final CompletableFuture<JsonNode> result;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingWait(HttpRequestBase req, CompletableFuture<JsonNode> result) {
+            this.req = req;
+            this.result = result;
+        }
 
-        return futureRetry;
+        void failClosed() {
+            if (claimed.compareAndSet(false, true)) {
+                result.completeExceptionally(new IOException(
+                        String.format("Request to uri %s rejected, the client is closed", req.getURI())));
+            }
+        }
     }
 
-    private JsonNode handleResponse(HttpResponse response) throws RestException, IOException {
+    private JsonNode handleResponse(HttpRequestBase req, HttpResponse response) throws RestException, IOException {
         HttpEntity entity = response.getEntity();
-        StringBuilder result = new StringBuilder();
+        StatusLine sl = response.getStatusLine();
+
+        ResponseCache cache = HttpGet.METHOD_NAME.equals(req.getMethod()) ? responseCache : null;
+
+        // Only error bodies are buffered, since the exception needs the raw text of the response
+        if (sl.getStatusCode() >= 300) {
+            String result = entity != null ? readText(req, response, entity) : "";
+            throw new RestException(sl.getReasonPhrase(), sl.getStatusCode(), result, response.getAllHeaders());
+        }
+
+        if (entity == null) {
+            return null;
+        }
 
-        if (entity != null) {
-            String encoding = null;
-            if (entity.getContentEncoding() != null) {
-                encoding = entity.getContentEncoding().getValue();
+        // Successful bodies are parsed straight from the entity stream, without intermediate copies
+        try (ResponseContent content = openContent(req, response, entity)) {
+            Charset charset = getCharset(entity);
+            JsonNode result = StandardCharsets.UTF_8.equals(charset) ?
+                    objectMapper.readTree(content.stream) :
+                    objectMapper.readTree(new InputStreamReader(content.stream, charset));
+            result = result == null || result.isMissingNode() ? null : result;
+
+            if (cache != null) {
+                cache.put(req.getURI(), response, result);
             }
 
-            if (encoding == null) {
-                Header contentTypeHeader = response.getFirstHeader("Content-Type");
-                HeaderElement[] contentTypeElements = contentTypeHeader.getElements();
-                for (HeaderElement he : contentTypeElements) {
-                    NameValuePair nvp = he.getParameterByName("charset");
-                    if (nvp != null) {
-                        encoding = nvp.getValue();
-                    }
-                }
+            return result;
+        }
+    }
+
+    private String readText(HttpRequestBase req, HttpResponse response, HttpEntity entity) throws IOException {
+        try (ResponseContent content = openContent(req, response, entity)) {
+            Reader reader = new InputStreamReader(content.stream, getCharset(entity));
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[4096];
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, n);
             }
+            return text.toString();
+        }
+    }
 
-            InputStreamReader isr = encoding != null ?
-                    new InputStreamReader(entity.getContent(), encoding) :
-                    new InputStreamReader(entity.getContent());
-            BufferedReader br = new BufferedReader(isr);
-            String line = "";
+    /**
+     * Opens the body of a response, decompressing it on the fly when the server sent it gzip or deflate encoded.
+     * Clients that decompress by themselves remove the Content-Encoding header, so bodies are never decoded twice.
+     */
+    private ResponseContent openContent(HttpRequestBase req, HttpResponse response, HttpEntity entity)
+            throws IOException {
+        Header header = response.getFirstHeader("Content-Encoding");
+        if (header == null) {
+            header = entity.getContentEncoding();
+        }
+        String encoding = header != null ? header.getValue().trim().toLowerCase(Locale.ROOT) : "";
 
-            while ((line = br.readLine()) != null)
-                result.append(line);
+        CountingInputStream wire = new CountingInputStream(entity.getContent());
+        InputStream decoded;
+        try {
+            if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+                decoded = new GZIPInputStream(wire, 8192);
+            } else if ("deflate".equals(encoding)) {
+                decoded = new DeflateInputStream(wire);
+            } else {
+                return new ResponseContent(req, wire, wire, false);
+            }
+        } catch (EOFException e) {
+            // An empty body with a Content-Encoding header
+            return new ResponseContent(req, wire, wire, false);
+        } catch (IOException e) {
+            wire.close();
+            throw e;
         }
 
-        StatusLine sl = response.getStatusLine();
+        return new ResponseContent(req, wire, new CountingInputStream(decoded), true);
+    }
 
-        if (sl.getStatusCode() >= 300)
-            throw new RestException(sl.getReasonPhrase(), sl.getStatusCode(), result.toString(), response.getAllHeaders());
+    /**
+     * The body of a response being read, which records the bytes received and decoded when closed.
+     */
+    private class ResponseContent implements Closeable {
+
+        private final HttpRequestBase req;
+        private final CountingInputStream wire;
+        private final CountingInputStream stream;
+        private final boolean compressed;
+
+        ResponseContent(HttpRequestBase req, CountingInputStream wire, CountingInputStream stream, boolean compressed) {
+            this.req = req;
+            this.wire = wire;
+            this.stream = stream;
+            this.compressed = compressed;
+        }
 
-        return result.length() > 0 ? objectMapper.readTree(result.toString()) : null;
+        @Override
+        public void close() throws IOException {
+            try {
+                stream.close();
+            } finally {
+                responses.incrementAndGet();
+                wireBytes.addAndGet(wire.getCount());
+                decodedBytes.addAndGet(stream.getCount());
+                if (compressed) {
+                    compressedResponses.incrementAndGet();
+                }
+                RestMetrics m = metrics;
+                if (m != null) {
+                    m.onBytesRead(req.getMethod(), RestMetrics.templateOf(uri, req.getURI()), wire.getCount(),
+                            stream.getCount());
+                }
+                logger.debug("Response from uri {}: {} bytes received, {} bytes decoded", req.getURI(),
+                        wire.getCount(), stream.getCount());
+            }
+        }
     }
 
-    private JsonNode request(HttpEntityEnclosingRequestBase req, String payload)
-        throws RestException, IOException {
+    private static Charset getCharset(HttpEntity entity) {
+        try {
+            ContentType contentType = ContentType.get(entity);
+            if (contentType != null && contentType.getCharset() != null) {
+                return contentType.getCharset();
+            }
+        } catch (ParseException | UnsupportedCharsetException e) {
+            logger.debug("Ignoring invalid Content-Type of response: {}", e.getMessage());
+        }
 
+        // JSON is UTF-8 unless the server says otherwise
+        return StandardCharsets.UTF_8;
+    }
+
+    private HttpEntityEnclosingRequestBase withPayload(HttpEntityEnclosingRequestBase req, String payload) {
         if (payload != null) {
             StringEntity ent = new StringEntity(payload, "UTF-8");
             ent.setContentType("application/json");
             req.addHeader("Content-Type", "application/json");
-            req.setEntity(ent);
+
+            // Only large bodies are worth the CPU, and only servers known to accept them get compressed bodies
+            if (compressRequests && payload.length() >= MIN_COMPRESSED_PAYLOAD) {
+                req.setEntity(new GzipCompressingEntity(ent));
+            } else {
+                req.setEntity(ent);
+            }
         }
 
-        return request(req);
+        return req;
+    }
+
+    private HttpEntityEnclosingRequestBase withPayload(HttpEntityEnclosingRequestBase req, ObjectNode payload) {
+        return withPayload(req, payload != null ? payload.toString() : null);
+    }
+
+    private JsonNode request(HttpEntityEnclosingRequestBase req, String payload)
+        throws RestException, IOException {
+
+        return request(withPayload(req, payload));
     }
 
     private JsonNode request(HttpEntityEnclosingRequestBase req, File file)
@@ -369,7 +1086,7 @@ public class RestClient {
     // Updated method to handle Jackson ObjectNode instead of JSON from net.sf.json
     private JsonNode request(HttpEntityEnclosingRequestBase req, ObjectNode payload)
             throws RestException, IOException {
-        return request(req, payload != null ? payload.toString() : null);
+        return request(withPayload(req, payload));
     }
 
     /**
@@ -379,26 +1096,84 @@ public class RestClient {
      *
      * @return JSON-encoded result or null when there's no content returned
      *
-     * @throws RestException when an HTTP-level error occurs
-     * @throws IOException when an error reading the response occurs
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs
+     */
+    public JsonNode delete(URI uri) throws RestException, IOException {
+        return request(new HttpDelete(uri));
+    }
+
+    /**
+     * Executes an HTTP DELETE with the given URI, timeouts and deadline.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param options Timeouts and deadline of this call
+     *
+     * @return JSON-encoded result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs, or a DeadlineExceededException when the
+     * deadline expires
+     */
+    public JsonNode delete(URI uri, RequestOptions options) throws RestException, IOException {
+        return request(new HttpDelete(uri), options);
+    }
+
+    /**
+     * Executes an HTTP DELETE with the given path.
+     *
+     * @param path Path to be appended to the URI supplied in the construtor
+     *
+     * @return JSON-encoded result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public JsonNode delete(String path) throws RestException, IOException, URISyntaxException {
+        return delete(buildURI(path));
+    }
+
+    /**
+     * Executes an HTTP DELETE with the given URI without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     */
+    public CompletableFuture<JsonNode> deleteAsync(URI uri) {
+        return requestAsync(new HttpDelete(uri));
+    }
+
+    /**
+     * Executes an HTTP DELETE with the given URI, timeouts and deadline without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param options Timeouts and deadline of this call
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs, with a DeadlineExceededException when the deadline
+     * expires and with an IOException when an error reading the response occurs
      */
-    public JsonNode delete(URI uri) throws RestException, IOException {
-        return request(new HttpDelete(uri));
+    public CompletableFuture<JsonNode> deleteAsync(URI uri, RequestOptions options) {
+        return requestAsync(new HttpDelete(uri), options);
     }
 
     /**
-     * Executes an HTTP DELETE with the given path.
+     * Executes an HTTP DELETE with the given path without blocking the calling thread.
      *
      * @param path Path to be appended to the URI supplied in the construtor
      *
-     * @return JSON-encoded result or null when there's no content returned
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
      *
-     * @throws RestException when an HTTP-level error occurs
-     * @throws IOException when an error reading the response occurs
      * @throws URISyntaxException when an error occurred appending the path to the URI
      */
-    public JsonNode delete(String path) throws RestException, IOException, URISyntaxException {
-        return delete(buildURI(path));
+    public CompletableFuture<JsonNode> deleteAsync(String path) throws URISyntaxException {
+        return deleteAsync(buildURI(path));
     }
 
     /**
@@ -415,6 +1190,22 @@ public class RestClient {
         return request(new HttpGet(uri));
     }
 
+    /**
+     * Executes an HTTP GET with the given URI, timeouts and deadline.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param options Timeouts and deadline of this call
+     *
+     * @return JSON-encoded result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs, or a DeadlineExceededException when the
+     * deadline expires
+     */
+    public JsonNode get(URI uri, RequestOptions options) throws RestException, IOException {
+        return request(new HttpGet(uri), options);
+    }
+
     /**
      * Executes an HTTP GET with the given path.
      *
@@ -446,6 +1237,64 @@ public class RestClient {
         return get(path, null);
     }
 
+    /**
+     * Executes an HTTP GET with the given URI without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     */
+    public CompletableFuture<JsonNode> getAsync(URI uri) {
+        return requestAsync(new HttpGet(uri));
+    }
+
+    /**
+     * Executes an HTTP GET with the given URI, timeouts and deadline without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param options Timeouts and deadline of this call
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs, with a DeadlineExceededException when the deadline
+     * expires and with an IOException when an error reading the response occurs
+     */
+    public CompletableFuture<JsonNode> getAsync(URI uri, RequestOptions options) {
+        return requestAsync(new HttpGet(uri), options);
+    }
+
+    /**
+     * Executes an HTTP GET with the given path without blocking the calling thread.
+     *
+     * @param path Path to be appended to the URI supplied in the construtor
+     * @param params Map of key value pairs
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     *
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public CompletableFuture<JsonNode> getAsync(String path, Map<String, String> params) throws URISyntaxException {
+        return getAsync(buildURI(path, params));
+    }
+
+    /**
+     * Executes an HTTP GET with the given path without blocking the calling thread.
+     *
+     * @param path Path to be appended to the URI supplied in the construtor
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     *
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public CompletableFuture<JsonNode> getAsync(String path) throws URISyntaxException {
+        return getAsync(path, null);
+    }
+
 
     /**
      * Executes an HTTP POST with the given URI and payload.
@@ -462,6 +1311,23 @@ public class RestClient {
         return request(new HttpPost(uri), payload);
     }
 
+    /**
+     * Executes an HTTP POST with the given URI, payload, timeouts and deadline.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     * @param options Timeouts and deadline of this call
+     *
+     * @return JSON-encoded result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs, or a DeadlineExceededException when the
+     * deadline expires
+     */
+    public JsonNode post(URI uri, ObjectNode payload, RequestOptions options) throws RestException, IOException {
+        return request(withPayload(new HttpPost(uri), payload), options);
+    }
+
     /**
      * Executes an HTTP POST with the given URI and payload.
      *
@@ -552,6 +1418,51 @@ public class RestClient {
         return request(new HttpPost(buildURI(path)), attachments);
     }
 
+    /**
+     * Executes an HTTP POST with the given URI and payload without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     */
+    public CompletableFuture<JsonNode> postAsync(URI uri, ObjectNode payload) {
+        return requestAsync(withPayload(new HttpPost(uri), payload));
+    }
+
+    /**
+     * Executes an HTTP POST with the given URI, payload, timeouts and deadline without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     * @param options Timeouts and deadline of this call
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs, with a DeadlineExceededException when the deadline
+     * expires and with an IOException when an error reading the response occurs
+     */
+    public CompletableFuture<JsonNode> postAsync(URI uri, ObjectNode payload, RequestOptions options) {
+        return requestAsync(withPayload(new HttpPost(uri), payload), options);
+    }
+
+    /**
+     * Executes an HTTP POST with the given path and payload without blocking the calling thread.
+     *
+     * @param path Path to be appended to the URI supplied in the construtor
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     *
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public CompletableFuture<JsonNode> postAsync(String path, ObjectNode payload) throws URISyntaxException {
+        return postAsync(buildURI(path), payload);
+    }
+
     /**
      * Executes an HTTP PUT with the given URI and payload.
      *
@@ -567,6 +1478,23 @@ public class RestClient {
         return request(new HttpPut(uri), payload);
     }
 
+    /**
+     * Executes an HTTP PUT with the given URI, payload, timeouts and deadline.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     * @param options Timeouts and deadline of this call
+     *
+     * @return JSON-encoded result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs, or a DeadlineExceededException when the
+     * deadline expires
+     */
+    public JsonNode put(URI uri, ObjectNode payload, RequestOptions options) throws RestException, IOException {
+        return request(withPayload(new HttpPut(uri), payload), options);
+    }
+
     /**
      * Executes an HTTP PUT with the given path and payload.
      *
@@ -584,13 +1512,314 @@ public class RestClient {
 
         return put(buildURI(path), payload);
     }
+
+    /**
+     * Executes an HTTP PUT with the given URI and payload without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     */
+    public CompletableFuture<JsonNode> putAsync(URI uri, ObjectNode payload) {
+        return requestAsync(withPayload(new HttpPut(uri), payload));
+    }
+
+    /**
+     * Executes an HTTP PUT with the given URI, payload, timeouts and deadline without blocking the calling thread.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     * @param options Timeouts and deadline of this call
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs, with a DeadlineExceededException when the deadline
+     * expires and with an IOException when an error reading the response occurs
+     */
+    public CompletableFuture<JsonNode> putAsync(URI uri, ObjectNode payload, RequestOptions options) {
+        return requestAsync(withPayload(new HttpPut(uri), payload), options);
+    }
+
+    /**
+     * Executes an HTTP PUT with the given path and payload without blocking the calling thread.
+     *
+     * @param path Path to be appended to the URI supplied in the construtor
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future completed with the JSON-encoded result or null when there's no content returned. It fails
+     * with a RestException when an HTTP-level error occurs and with an IOException when an error reading the
+     * response occurs
+     *
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public CompletableFuture<JsonNode> putAsync(String path, ObjectNode payload) throws URISyntaxException {
+        return putAsync(buildURI(path), payload);
+    }
     
+    /**
+     * Paces the requests of this client with a token bucket learned from the rate limit headers of the server, so
+     * that they stay under the limit instead of being rejected with a 429.
+     *
+     * @param rateLimiter Limiter to use, possibly shared with other clients, or null to send requests unpaced
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Replaces the gate that holds back the requests of this client after a 429, for example to share one gate
+     * between the clients of a host or to tune its ramp-up.
+     *
+     * @param rateLimitGate Gate to use
+     */
+    public void setRateLimitGate(RateLimitGate rateLimitGate) {
+        if (rateLimitGate == null) {
+            throw new IllegalArgumentException("rateLimitGate may not be null");
+        }
+        this.rateLimitGate = rateLimitGate;
+    }
+
+    public RateLimitGate getRateLimitGate() {
+        return rateLimitGate;
+    }
+
+    /**
+     * Retries requests that fail with a transient server error or a network error, according to the given policy.
+     * Responses with a 429 status keep being handled by enableRetryOnRateLimit.
+     *
+     * @param retryPolicy Policy deciding which requests are retried, or null to never retry them
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Protects the request pool from failing endpoints: while the circuit of an endpoint family is open, its
+     * requests fail at once with a {@link CircuitBreakerOpenException} instead of being sent.
+     *
+     * @param circuitBreaker Circuit breaker to use, or null to always send requests
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Hedges the GET requests: a GET still running after a percentile of the recent latencies is sent a second
+     * time, and the first response is used. Hedges are not sent while the rate limit holds requests back.
+     *
+     * @param hedgingPolicy Policy deciding when to hedge, or null to never hedge
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Sets the timeouts and deadline of every request of this client. Options given to a single call take
+     * precedence.
+     *
+     * @param requestOptions Options to use, or null to use the defaults of the HTTP client without a deadline
+     */
+    public void setRequestOptions(RequestOptions requestOptions) {
+        this.requestOptions = requestOptions;
+    }
+
+    public RequestOptions getRequestOptions() {
+        return requestOptions;
+    }
+
+    /**
+     * Sends JSON bodies of 1 KB or more gzip compressed. Jira only accepts them when its web server is set up to
+     * decode request bodies, hence this is off by default.
+     *
+     * @param compressRequests Whether large request bodies are compressed
+     */
+    public void setRequestCompression(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+    }
+
+    public boolean isRequestCompression() {
+        return compressRequests;
+    }
+
+    /**
+     * Caches the GET responses that carry an ETag or Last-Modified validator, and revalidates them with conditional
+     * requests so that unchanged resources are answered with a 304 instead of being sent and parsed again.
+     *
+     * @param responseCache Cache to use, or null to disable caching
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Coalesces identical GETs running at the same time into a single request, see {@link RequestCoalescer}.
+     *
+     * @param requestCoalescer Coalescer to use, or null to send every GET
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Reports the latency, status, retries, waits and bytes read of the requests to the given metrics, for example
+     * an {@link InMemoryRestMetrics}.
+     *
+     * @param metrics Metrics to report to, or null to not report
+     */
+    public void setMetrics(RestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public RestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a listener called before and after each attempt of the requests, see {@link RequestListener}.
+     *
+     * @param listener Listener to add
+     */
+    public void addRequestListener(RequestListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener may not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addRequestListener(RequestListener)}.
+     *
+     * @param listener Listener to remove
+     */
+    public void removeRequestListener(RequestListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the cache of server-level resources used by the resource classes, see {@link MetadataCache}.
+     *
+     * @param metadataCache Cache to use, or null to disable caching
+     */
+    public void setMetadataCache(MetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * Gets the capabilities of the server, as detected by {@link ServerCapabilities#get(RestClient)}.
+     *
+     * @return the capabilities, or null when not detected yet
+     */
+    public ServerCapabilities getServerCapabilities() {
+        return serverCapabilities;
+    }
+
+    void setServerCapabilities(ServerCapabilities serverCapabilities) {
+        this.serverCapabilities = serverCapabilities;
+    }
+
+    /**
+     * Guards the detection of the server capabilities, so that concurrent callers ask the server once.
+     */
+    Object getServerCapabilitiesLock() {
+        return serverCapabilitiesLock;
+    }
+
+    /**
+     * Obtains the number of bytes of response bodies received and decoded so far.
+     *
+     * @return the current transfer counters
+     */
+    public TransferMetrics getTransferMetrics() {
+        return new TransferMetrics(responses.get(), compressedResponses.get(), wireBytes.get(), decodedBytes.get());
+    }
+
+    /**
+     * Obtains the current state of the pool executing the requests.
+     *
+     * @return a snapshot of the pool metrics
+     */
+    public ExecutorMetrics getExecutorMetrics() {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            return new ExecutorMetrics(pool.getActiveCount(), pool.getPoolSize(), pool.getQueue().size(),
+                    pool.getCompletedTaskCount(), rejectedTasks.get());
+        }
+
+        return new ExecutorMetrics(activeTasks.get(), -1, -1, -1, rejectedTasks.get());
+    }
+
+    /**
+     * Obtains the current state of the connection pool of the transport.
+     *
+     * @return a snapshot of the pool metrics, or null when the transport does not expose its pool
+     */
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return transport instanceof ApacheHttpTransport ?
+                ((ApacheHttpTransport) transport).getConnectionPoolMetrics() : null;
+    }
+
+    /**
+     * Shuts down the thread pools created by this client. Executors supplied by the caller, and the transport, are
+     * left running. Requests waiting in a scheduler owned by the client, for a retry or for the rate limit, fail with
+     * an IOException.
+     */
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+            for (PendingWait wait : pendingWaits) {
+                wait.failClosed();
+            }
+        }
+    }
+
     /**
      * Exposes the http client.
      *
-     * @return the httpClient property
+     * @return the httpClient property, or null when the transport is not backed by an Apache HttpClient
      */
     public HttpClient getHttpClient(){
-        return this.httpClient;
+        return transport instanceof ApacheHttpTransport ? ((ApacheHttpTransport) transport).getHttpClient() : null;
+    }
+
+    /**
+     * Exposes the transport used to send the requests.
+     *
+     * @return the transport property
+     */
+    public HttpTransport getTransport() {
+        return transport;
     }
 }
\ No newline at end of file
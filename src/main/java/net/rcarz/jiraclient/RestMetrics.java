@@ -0,0 +1,107 @@
+package net.rcarz.jiraclient;
+
+import java.net.URI;
+
+/**
+ * Receives the measurements of the requests sent by a {@link RestClient}, to be forwarded to a metrics library or
+ * kept in memory by {@link InMemoryRestMetrics}.
+ *
+ * Requests are identified by their HTTP method and the template of their path, see {@link #templateOf(URI)}, so that
+ * the requests of an endpoint are aggregated whatever the issue or project they concern. Every method has an empty
+ * default implementation; they are called from the threads completing the requests and must not block.
+ */
+public interface RestMetrics {
+
+    /**
+     * Status reported for an attempt that got no response, such as a connection reset or a timeout.
+     */
+    int NO_RESPONSE = -1;
+
+    /**
+     * Called when an attempt completes, retries and hedged copies included.
+     *
+     * @param method HTTP method
+     * @param template Path template of the request
+     * @param status Status code of the response, or {@link #NO_RESPONSE}
+     * @param latencyNanos Time from sending the request until the response headers were received
+     */
+    default void onAttempt(String method, String template, int status, long latencyNanos) {
+    }
+
+    /**
+     * Called when an attempt is answered with a 429, whether or not it is retried.
+     *
+     * @param method HTTP method
+     * @param template Path template of the request
+     */
+    default void onRateLimited(String method, String template) {
+    }
+
+    /**
+     * Called when a new attempt of a request is scheduled.
+     *
+     * @param method HTTP method
+     * @param template Path template of the request
+     * @param status Status code of the failed attempt, or {@link #NO_RESPONSE}
+     */
+    default void onRetry(String method, String template, int status) {
+    }
+
+    /**
+     * Called when a request has waited before being sent: for a retry, after a 429 or to be paced by the rate
+     * limiter.
+     *
+     * @param method HTTP method
+     * @param template Path template of the request
+     * @param waitMillis Time waited
+     */
+    default void onBackoff(String method, String template, long waitMillis) {
+    }
+
+    /**
+     * Called when the body of a response has been read.
+     *
+     * @param method HTTP method
+     * @param template Path template of the request
+     * @param wireBytes Bytes received, as sent by the server
+     * @param decodedBytes Bytes after decompression
+     */
+    default void onBytesRead(String method, String template, long wireBytes, long decodedBytes) {
+    }
+
+    /**
+     * Gets the template of the path of a request: the "rest/api/version" prefix is dropped, numeric segments are
+     * replaced with {id} and other keys with {key}. For example "/rest/api/2/issue/TEST-1/comment/10010" becomes
+     * "/issue/{key}/comment/{id}".
+     *
+     * @param uri URI of the request
+     * @return the path template
+     */
+    static String templateOf(URI uri) {
+        return templateOf(null, uri);
+    }
+
+    /**
+     * Gets the template of the path of a request sent to a Jira served under a context path, which is dropped too.
+     *
+     * @param base Base URI of the client, for example "https://host/jira"
+     * @param uri URI of the request
+     * @return the path template
+     */
+    static String templateOf(URI base, URI uri) {
+        StringBuilder template = new StringBuilder();
+        for (String segment : ResourcePath.segmentsOf(base, uri)) {
+            // Resource names start in lower case (issue, issueLink...), anything else identifies an instance
+            template.append('/');
+            if (segment.matches("[0-9]+")) {
+                template.append("{id}");
+            } else if (segment.matches("[a-z][a-zA-Z]*")) {
+                template.append(segment);
+            } else {
+                template.append("{key}");
+            }
+        }
+
+        return template.length() > 0 ? template.toString() : "/";
+    }
+}
@@ -0,0 +1,165 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Decides which failed requests {@link RestClient} sends again, besides the 429 responses handled by
+ * enableRetryOnRateLimit.
+ *
+ * By default idempotent requests (GET, HEAD, OPTIONS, PUT and DELETE) are retried on a 502, 503 or 504 response
+ * and on network errors, at most 3 times and for no longer than 60 seconds in total. POST requests are only retried
+ * when {@link #retryPost(boolean)} is set, since the server may have processed the first attempt. Requests whose
+ * body cannot be sent twice are never retried.
+ *
+ * The methods can be overridden to plug in other rules.
+ */
+public class RetryPolicy {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE")));
+
+    private int maxRetries = 3;
+    private long maxRetryTimeMillis = 60000L;
+    private boolean retryPost = false;
+    private boolean retryOnNetworkErrors = true;
+    private Set<Integer> retryStatuses = new HashSet<>(Arrays.asList(502, 503, 504));
+
+    /**
+     * @param maxRetries Maximum number of retries of a request
+     */
+    public RetryPolicy maxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries may not be negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * @param maxRetryTimeMillis Retry budget: no retry is scheduled once a request, waits included, would take
+     *                           longer than this
+     */
+    public RetryPolicy maxRetryTime(long maxRetryTimeMillis) {
+        if (maxRetryTimeMillis < 0) {
+            throw new IllegalArgumentException("maxRetryTimeMillis may not be negative");
+        }
+        this.maxRetryTimeMillis = maxRetryTimeMillis;
+        return this;
+    }
+
+    /**
+     * @param retryPost Whether POST requests are retried as well, for endpoints known to be safe to repeat
+     */
+    public RetryPolicy retryPost(boolean retryPost) {
+        this.retryPost = retryPost;
+        return this;
+    }
+
+    /**
+     * @param retryOnNetworkErrors Whether requests failing with an IOException (connection reset, timeout...) are
+     *                             retried
+     */
+    public RetryPolicy retryOnNetworkErrors(boolean retryOnNetworkErrors) {
+        this.retryOnNetworkErrors = retryOnNetworkErrors;
+        return this;
+    }
+
+    /**
+     * @param statuses Response statuses that are retried
+     */
+    public RetryPolicy retryStatuses(Integer... statuses) {
+        this.retryStatuses = new HashSet<>(Arrays.asList(statuses));
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getMaxRetryTimeMillis() {
+        return maxRetryTimeMillis;
+    }
+
+    public boolean isRetryPost() {
+        return retryPost;
+    }
+
+    public boolean isRetryOnNetworkErrors() {
+        return retryOnNetworkErrors;
+    }
+
+    public Set<Integer> getRetryStatuses() {
+        return Collections.unmodifiableSet(retryStatuses);
+    }
+
+    /**
+     * Tells whether a request can be sent again at all, whatever the failure.
+     *
+     * @param request The failed request
+     * @return true for idempotent methods, and for POST when enabled, as long as the body is repeatable
+     */
+    public boolean isRetryable(HttpRequest request) {
+        String method = request.getRequestLine().getMethod().toUpperCase(Locale.ROOT);
+
+        if (!IDEMPOTENT_METHODS.contains(method) && !(retryPost && "POST".equals(method))) {
+            return false;
+        }
+
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+
+        return true;
+    }
+
+    /**
+     * Tells whether a request that received an error response should be retried.
+     *
+     * @param request The request
+     * @param response The response received
+     * @param attempt The number of the attempt that failed, starting from 0
+     * @return true to retry
+     */
+    public boolean shouldRetry(HttpRequest request, HttpResponse response, int attempt) {
+        return attempt < maxRetries
+                && retryStatuses.contains(response.getStatusLine().getStatusCode())
+                && isRetryable(request);
+    }
+
+    /**
+     * Tells whether a request that failed without a response should be retried.
+     *
+     * @param request The request
+     * @param exception The network error
+     * @param attempt The number of the attempt that failed, starting from 0
+     * @return true to retry
+     */
+    public boolean shouldRetry(HttpRequest request, IOException exception, int attempt) {
+        return attempt < maxRetries && retryOnNetworkErrors && isRetryable(request);
+    }
+
+    /**
+     * Calculates the wait before the next attempt with the jittered backoff of {@link RetryWaitCalculator}.
+     *
+     * @param response The response received, or null after a network error
+     * @param attempt The number of the attempt that failed, starting from 0
+     * @return the wait in milliseconds
+     * @throws IOException If the backoff grows beyond what the calculator accepts
+     */
+    public long getWaitTimeMillis(HttpResponse response, int attempt) throws IOException {
+        return response != null
+                ? RetryWaitCalculator.calculateWaitTimeMillis(response, attempt)
+                : RetryWaitCalculator.calculateWaitTimeMillis(attempt);
+    }
+}
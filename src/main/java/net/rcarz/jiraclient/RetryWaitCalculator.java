@@ -67,6 +67,47 @@ public class RetryWaitCalculator {
         return RANDOM.nextInt((int)ceiling) + 1L;
     }
 
+    /**
+     * Calculates the wait time (in milliseconds) for a retry attempt following a request that failed without a
+     * response, such as a connection reset or a timeout. Uses the same "Full Jitter" strategy with a base of 1 second.
+     *
+     * @param attempt   The current retry attempt number (starting from 0 for the first retry).
+     * @return A value representing the randomized wait time in milliseconds.
+     * @throws IOException If the "Fail Fast" policy is triggered because the calculated
+     * backoff ceiling exceeds the MAX_WAIT_TIME_MS threshold.
+     */
+    public static long calculateWaitTimeMillis(int attempt) throws IOException {
+        return calculateWaitTimeMillis(null, attempt);
+    }
+
+    /**
+     * Calculates the wait time (in milliseconds) for a retry attempt following a 429 (Too Many Requests) response,
+     * for a request that must complete before a deadline.
+     *
+     * @param response  The HttpResponse object, used to read rate-limiting headers.
+     * @param attempt   The current retry attempt number (starting from 0 for the first retry).
+     * @param remainingMillis Time left before the deadline of the request, or a negative value when it has none.
+     * @return A value representing the randomized wait time in milliseconds.
+     * @throws IOException If the "Fail Fast" policy is triggered, either because the backoff ceiling exceeds the
+     * MAX_WAIT_TIME_MS threshold or because the retry could not start before the deadline.
+     */
+    public static long calculateWaitTimeMillis(HttpResponse response, int attempt, long remainingMillis)
+            throws IOException {
+        return checkDeadline(calculateWaitTimeMillis(response, attempt), remainingMillis);
+    }
+
+    /**
+     * Fails fast when a retry after the given wait could not start before the deadline of the request.
+     */
+    static long checkDeadline(long waitTime, long remainingMillis) throws IOException {
+        if (remainingMillis >= 0 && waitTime >= remainingMillis) {
+            throw new IOException(String.format(
+                    "Fail-fast: Retry wait (%d ms) does not fit in the %d ms left before the deadline", waitTime,
+                    remainingMillis));
+        }
+        return waitTime;
+    }
+
     private static String formatRateLimitHeaders(HttpResponse response) {
         String retryAfter = getValueForHeader(response, "Retry-After");
         String interval = getValueForHeader(response, "X-RateLimit-Interval-Seconds");
@@ -90,7 +131,7 @@ public class RetryWaitCalculator {
     }
 
     private static String getValueForHeader(HttpResponse response, String name) {
-        if (name == null || name.isEmpty() ) {
+        if (response == null || name == null || name.isEmpty() ) {
             return "";
         }
         Header header = response.getFirstHeader(name);
@@ -0,0 +1,133 @@
+package net.rcarz.jiraclient;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What the Jira server behind a {@link RestClient} is and which endpoints it supports.
+ *
+ * The capabilities are detected from the server info the first time they are needed, and then kept by the REST
+ * client, so version-dependent code paths do not have to ask the server every time. {@link #refresh(RestClient)}
+ * detects them again, for example after an upgrade of the server.
+ */
+public class ServerCapabilities {
+
+    private final String deploymentType;
+    private final List<Integer> versionNumbers;
+
+    public ServerCapabilities(String deploymentType, List<Integer> versionNumbers) {
+        this.deploymentType = deploymentType != null ? deploymentType : "";
+        this.versionNumbers = versionNumbers != null
+                ? Collections.unmodifiableList(versionNumbers) : Collections.<Integer>emptyList();
+    }
+
+    /**
+     * Gets the capabilities of the server, detecting them on the first call.
+     *
+     * @param restclient REST client instance
+     * @return the capabilities
+     * @throws JiraException when the server info cannot be retrieved
+     */
+    public static ServerCapabilities get(RestClient restclient) throws JiraException {
+        ServerCapabilities capabilities = restclient.getServerCapabilities();
+        if (capabilities != null) {
+            return capabilities;
+        }
+
+        // A lock of the client's own, as applications may synchronize on the client for their own purposes
+        synchronized (restclient.getServerCapabilitiesLock()) {
+            capabilities = restclient.getServerCapabilities();
+            return capabilities != null ? capabilities : detect(restclient);
+        }
+    }
+
+    /**
+     * Detects the capabilities of the server again, from server info fetched anew rather than from the metadata
+     * cache of the client.
+     *
+     * @param restclient REST client instance
+     * @return the new capabilities
+     * @throws JiraException when the server info cannot be retrieved
+     */
+    public static ServerCapabilities refresh(RestClient restclient) throws JiraException {
+        MetadataCache.invalidate(restclient, MetadataCache.Kind.SERVER_INFO, "*");
+        return detect(restclient);
+    }
+
+    private static ServerCapabilities detect(RestClient restclient) throws JiraException {
+        ServerInfo serverInfo = ServerInfo.get(restclient);
+        ServerCapabilities capabilities = new ServerCapabilities(serverInfo.getDeploymentType(),
+                serverInfo.getVersionNumbers());
+        restclient.setServerCapabilities(capabilities);
+        return capabilities;
+    }
+
+    public String getDeploymentType() {
+        return deploymentType;
+    }
+
+    public List<Integer> getVersionNumbers() {
+        return versionNumbers;
+    }
+
+    /**
+     * @return the major version of the server, or 0 when unknown
+     */
+    public int getMajorVersion() {
+        return versionNumbers.isEmpty() || versionNumbers.get(0) == null ? 0 : versionNumbers.get(0);
+    }
+
+    public boolean isCloud() {
+        return ServerInfo.CLOUD.equalsIgnoreCase(deploymentType);
+    }
+
+    /**
+     * @return true for Jira Server and Data Center
+     */
+    public boolean isServer() {
+        return ServerInfo.SERVER.equalsIgnoreCase(deploymentType);
+    }
+
+    /**
+     * Tells whether the create metadata is served per project and issue type
+     * (issue/createmeta/{project}/issuetypes/{id}), rather than by the expanded issue/createmeta of Jira 8.
+     *
+     * @return true for Jira Server 9 and later
+     */
+    public boolean supportsCreateMetaV9() {
+        return isServer() && getMajorVersion() >= 9;
+    }
+
+    /**
+     * Tells whether issues are searched with the token-paginated search/jql endpoint, which replaces search on
+     * Jira Cloud.
+     *
+     * @return true for Jira Cloud
+     */
+    public boolean supportsJqlSearch() {
+        return isCloud();
+    }
+
+    /**
+     * Tells whether the changelogs of several issues can be fetched at once with changelog/bulkfetch.
+     *
+     * @return true for Jira Cloud
+     */
+    public boolean supportsBulkChangelog() {
+        return isCloud();
+    }
+
+    /**
+     * Tells whether issues can be created in bulk with issue/bulk.
+     *
+     * @return true for Jira Cloud and Jira Server 6 and later
+     */
+    public boolean supportsBulkCreate() {
+        return isCloud() || getMajorVersion() >= 6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s", deploymentType, versionNumbers);
+    }
+}
@@ -66,7 +66,8 @@ public class ServerInfo extends Resource {
         JsonNode result = null;
 
         try {
-            result = restclient.get(getBaseUri() + "serverInfo");
+            result = MetadataCache.get(restclient, MetadataCache.Kind.SERVER_INFO, "*",
+                    () -> restclient.get(getBaseUri() + "serverInfo"));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve ServerInfo", ex);
         }
@@ -67,7 +67,8 @@ public class Status extends Resource {
         JsonNode result = null;
 
         try {
-            result = restclient.get(getBaseUri() + "status/" + id);
+            result = MetadataCache.get(restclient, MetadataCache.Kind.STATUS, id,
+                    () -> restclient.get(getBaseUri() + "status/" + id));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve status " + id, ex);
         }
@@ -0,0 +1,56 @@
+package net.rcarz.jiraclient;
+
+/**
+ * A point-in-time view of the response bodies received by a {@link RestClient}.
+ *
+ * Wire bytes are counted as received from the transport, decoded bytes after decompression: their ratio tells how
+ * much the gzip/deflate negotiation saves.
+ */
+public class TransferMetrics {
+
+    private final long responses;
+    private final long compressedResponses;
+    private final long wireBytes;
+    private final long decodedBytes;
+
+    public TransferMetrics(long responses, long compressedResponses, long wireBytes, long decodedBytes) {
+        this.responses = responses;
+        this.compressedResponses = compressedResponses;
+        this.wireBytes = wireBytes;
+        this.decodedBytes = decodedBytes;
+    }
+
+    /**
+     * Number of response bodies read.
+     */
+    public long getResponses() {
+        return responses;
+    }
+
+    /**
+     * Number of response bodies the server sent compressed.
+     */
+    public long getCompressedResponses() {
+        return compressedResponses;
+    }
+
+    /**
+     * Bytes of response bodies received, as sent by the server.
+     */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    /**
+     * Bytes of response bodies after decompression.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("responses=%d, compressed=%d, wireBytes=%d, decodedBytes=%d",
+                responses, compressedResponses, wireBytes, decodedBytes);
+    }
+}
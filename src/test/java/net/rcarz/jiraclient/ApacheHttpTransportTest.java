@@ -0,0 +1,12 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+
+public class ApacheHttpTransportTest extends HttpTransportConformanceTest {
+
+    @Override
+    protected HttpTransport createTransport() {
+        return new ApacheHttpTransport(new DefaultHttpClient(new PoolingClientConnectionManager()));
+    }
+}
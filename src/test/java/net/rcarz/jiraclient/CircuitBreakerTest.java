@@ -0,0 +1,105 @@
+package net.rcarz.jiraclient;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final String CIRCUIT = "jira.example.com /search";
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testCircuitNames() {
+        assertEquals("jira.example.com /search",
+                CircuitBreaker.circuitFor(URI.create("https://jira.example.com/rest/api/2/search?jql=x")));
+        assertEquals("jira.example.com /issue",
+                CircuitBreaker.circuitFor(URI.create("https://jira.example.com/rest/api/latest/issue/TEST-1/transitions")));
+        assertEquals("jira.example.com /issue/bulk",
+                CircuitBreaker.circuitFor(URI.create("https://Jira.Example.com/rest/api/2/issue/bulk")));
+        assertEquals("jira.example.com /attachment",
+                CircuitBreaker.circuitFor(URI.create("https://jira.example.com/rest/api/2/attachment/10001")));
+        assertEquals("jira.example.com /secure/attachment",
+                CircuitBreaker.circuitFor(URI.create("https://jira.example.com/secure/attachment/10001/file.txt")));
+    }
+
+    @Test
+    public void testCircuitNamesUnderAContextPath() {
+        URI base = URI.create("https://jira.example.com/jira");
+
+        assertEquals("jira.example.com /search",
+                CircuitBreaker.circuitFor(base, URI.create("https://jira.example.com/jira/rest/api/2/search?jql=x")));
+        assertEquals("jira.example.com /issue/bulk",
+                CircuitBreaker.circuitFor(base, URI.create("https://jira.example.com/jira/rest/api/2/issue/bulk")));
+        assertEquals("jira.example.com /secure/attachment", CircuitBreaker.circuitFor(base,
+                URI.create("https://jira.example.com/jira/secure/attachment/10001/file.txt")));
+        assertEquals("jira.example.com /", CircuitBreaker.circuitFor(URI.create("https://jira.example.com/jira/"),
+                URI.create("https://jira.example.com/jira")));
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker().window(10, 4).failureRateThreshold(0.5);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, breaker.tryAcquire(CIRCUIT, 0L));
+            breaker.onFailure(CIRCUIT, 0L);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getStates().get(CIRCUIT));
+
+        breaker.tryAcquire(CIRCUIT, 0L);
+        breaker.onSuccess(CIRCUIT, 0L, 0L);
+        assertTrue(breaker.tryAcquire(CIRCUIT, 0L) > 0L);
+        assertTrue(breaker.tryAcquire("jira.example.com /issue", 0L) == 0L);
+    }
+
+    @Test
+    public void testOpensOnSlowCalls() {
+        CircuitBreaker breaker = new CircuitBreaker().window(4, 4).slowCallThreshold(1000L, 0.75);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquire(CIRCUIT, 0L);
+            breaker.onSuccess(CIRCUIT, 2 * SECOND, 0L);
+        }
+        breaker.tryAcquire(CIRCUIT, 0L);
+        breaker.onSuccess(CIRCUIT, 0L, 0L);
+
+        assertTrue(breaker.tryAcquire(CIRCUIT, 0L) > 0L);
+    }
+
+    @Test
+    public void testHalfOpenProbes() {
+        CircuitBreaker breaker = new CircuitBreaker().window(1, 1).openDuration(30000L).halfOpenProbes(2);
+        breaker.tryAcquire(CIRCUIT, 0L);
+        breaker.onFailure(CIRCUIT, 0L);
+
+        long retryAfter = breaker.tryAcquire(CIRCUIT, 10 * SECOND);
+        assertTrue("retry after " + retryAfter, retryAfter > 19000L && retryAfter <= 20001L);
+
+        // Two probes go through, a third one waits for their outcome
+        assertEquals(0L, breaker.tryAcquire(CIRCUIT, 30 * SECOND));
+        assertEquals(0L, breaker.tryAcquire(CIRCUIT, 30 * SECOND));
+        assertTrue(breaker.tryAcquire(CIRCUIT, 30 * SECOND) > 0L);
+
+        breaker.onSuccess(CIRCUIT, 0L, 31 * SECOND);
+        breaker.onSuccess(CIRCUIT, 0L, 31 * SECOND);
+        assertEquals(0L, breaker.tryAcquire(CIRCUIT, 31 * SECOND));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getStates().get(CIRCUIT));
+    }
+
+    @Test
+    public void testFailedProbeReopens() {
+        CircuitBreaker breaker = new CircuitBreaker().window(1, 1).openDuration(1000L);
+        breaker.tryAcquire(CIRCUIT, 0L);
+        breaker.onFailure(CIRCUIT, 0L);
+
+        assertEquals(0L, breaker.tryAcquire(CIRCUIT, 2 * SECOND));
+        breaker.onFailure(CIRCUIT, 2 * SECOND);
+
+        assertTrue(breaker.tryAcquire(CIRCUIT, 2 * SECOND) > 0L);
+    }
+}
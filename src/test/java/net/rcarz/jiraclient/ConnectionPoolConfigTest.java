@@ -0,0 +1,128 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPoolConfigTest {
+
+    @Test
+    public void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolConfig().maxTotal(0));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolConfig().maxPerRoute(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPoolConfig().timeToLive(-1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolConfig().maxIdle(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testKeepAliveCapsTheAnnouncedDuration() {
+        ConnectionKeepAliveStrategy strategy = new ConnectionPoolConfig().keepAlive(30, TimeUnit.SECONDS)
+                .createKeepAliveStrategy();
+
+        assertEquals(30000L, strategy.getKeepAliveDuration(keepAliveResponse("timeout=120"), null));
+        assertEquals(5000L, strategy.getKeepAliveDuration(keepAliveResponse("timeout=5"), null));
+        assertEquals(30000L, strategy.getKeepAliveDuration(keepAliveResponse(null), null));
+    }
+
+    private static HttpResponse keepAliveResponse(String keepAlive) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (keepAlive != null) {
+            response.addHeader("Keep-Alive", keepAlive);
+        }
+        return response;
+    }
+
+    @Test
+    public void testReportsPoolMetrics() throws Exception {
+        StubServer server = new StubServer();
+        final CountDownLatch release = new CountDownLatch(1);
+        server.handle("/rest/api/latest/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes("UTF-8"));
+        });
+
+        RestClient restClient = new RestClient(new ApacheHttpTransport(new ConnectionPoolConfig().maxPerRoute(2)),
+                null, server.getUri(), null, false, new ExecutorConfig());
+        try {
+            URI slow = restClient.buildURI("/rest/api/latest/slow");
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[3];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = restClient.getAsync(slow);
+            }
+
+            // Two requests hold the connections of the route, the third waits for one
+            ConnectionPoolMetrics busy = restClient.getConnectionPoolMetrics();
+            for (int i = 0; i < 50 && busy.getPending() < 1; i++) {
+                Thread.sleep(20L);
+                busy = restClient.getConnectionPoolMetrics();
+            }
+            assertEquals(2, busy.getLeased());
+            assertEquals(1, busy.getPending());
+
+            release.countDown();
+            CompletableFuture.allOf(calls).get(5, TimeUnit.SECONDS);
+
+            ConnectionPoolMetrics idle = restClient.getConnectionPoolMetrics();
+            assertEquals(0, idle.getLeased());
+            assertEquals(0, idle.getPending());
+            assertTrue(idle.getAvailable() >= 1);
+        } finally {
+            restClient.close();
+            restClient.getTransport().close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionsAreEvicted() throws Exception {
+        StubServer server = new StubServer();
+        server.respond("/rest/api/latest/serverInfo", 200, "{}");
+
+        RestClient restClient = new RestClient(
+                new ApacheHttpTransport(new ConnectionPoolConfig().maxIdle(100, TimeUnit.MILLISECONDS)),
+                null, server.getUri(), null, false, new ExecutorConfig());
+        try {
+            restClient.get("/rest/api/latest/serverInfo");
+            assertEquals(1, restClient.getConnectionPoolMetrics().getAvailable());
+
+            for (int i = 0; i < 50 && restClient.getConnectionPoolMetrics().getAvailable() > 0; i++) {
+                Thread.sleep(20L);
+            }
+            assertEquals(0, restClient.getConnectionPoolMetrics().getAvailable());
+        } finally {
+            restClient.close();
+            restClient.getTransport().close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testUnknownPoolsHaveNoMetrics() {
+        RestClient restClient = new RestClient(new ApacheHttpTransport(
+                HttpClients.createMinimal()), null, URI.create("http://localhost"),
+                false, new ExecutorConfig());
+        try {
+            assertNull(restClient.getConnectionPoolMetrics());
+        } finally {
+            restClient.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.rcarz.jiraclient;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HedgingPolicyTest {
+
+    @Test
+    public void testDelayFollowsPercentile() {
+        HedgingPolicy policy = new HedgingPolicy().percentile(0.9).initialDelay(500L).minDelay(5L);
+        assertEquals(500L, policy.getHedgeDelayMillis());
+
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(90L, policy.getHedgeDelayMillis());
+    }
+
+    @Test
+    public void testDelayHasAFloor() {
+        HedgingPolicy policy = new HedgingPolicy().minDelay(50L);
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertEquals(50L, policy.getHedgeDelayMillis());
+    }
+
+    @Test
+    public void testHedgesAreCapped() {
+        HedgingPolicy policy = new HedgingPolicy().maxHedgeRatio(0.1);
+
+        // The first hedge is free, the next one needs ten requests
+        assertTrue(policy.tryAcquireHedge());
+        for (int i = 0; i < 9; i++) {
+            policy.onRequest();
+            assertFalse(policy.tryAcquireHedge());
+        }
+        policy.onRequest();
+        assertTrue(policy.tryAcquireHedge());
+        assertEquals(2L, policy.getHedgeCount());
+    }
+}
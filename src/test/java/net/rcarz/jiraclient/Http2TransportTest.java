@@ -0,0 +1,164 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class Http2TransportTest extends HttpTransportConformanceTest {
+
+    private HttpAsyncServer h2Server;
+    private URI h2Uri;
+    private volatile Message<HttpRequest, byte[]> lastRequest;
+
+    /**
+     * The stub server only speaks HTTP/1.1 over plain HTTP, so this also checks the fallback of the negotiating mode.
+     */
+    @Override
+    protected HttpTransport createTransport() {
+        return new Http2Transport(Http2Transport.Mode.NEGOTIATE, 4);
+    }
+
+    /**
+     * Starts a server that only speaks HTTP/2 over plain HTTP (h2c), keeps the last request it received and answers
+     * every request with a server info.
+     */
+    @Before
+    public void startH2Server() throws Exception {
+        h2Server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, byte[]>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(
+                            HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+                        return new BasicRequestConsumer<>(new BasicAsyncEntityConsumer());
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, byte[]> message, ResponseTrigger responseTrigger,
+                                       HttpContext context) throws HttpException, IOException {
+                        lastRequest = message;
+                        responseTrigger.submitResponse(new BasicResponseProducer(200, "{\"version\":\"9.4.0\"}",
+                                ContentType.APPLICATION_JSON), context);
+                    }
+                })
+                .create();
+        h2Server.start();
+
+        ListenerEndpoint endpoint = h2Server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTP)
+                .get(10, TimeUnit.SECONDS);
+        h2Uri = URI.create("http://localhost:" + ((InetSocketAddress) endpoint.getAddress()).getPort());
+    }
+
+    @After
+    public void stopH2Server() {
+        h2Server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    public void testPriorKnowledgeRoundTrip() throws Exception {
+        try (Http2Transport transport = new Http2Transport(Http2Transport.Mode.PRIOR_KNOWLEDGE, 4)) {
+            HttpResponse response = transport.execute(new HttpGet(h2Uri.resolve("/rest/api/latest/serverInfo")),
+                    new BasicHttpContext());
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertEquals(2, response.getStatusLine().getProtocolVersion().getMajor());
+            assertEquals("OK", response.getStatusLine().getReasonPhrase());
+            assertEquals("{\"version\":\"9.4.0\"}", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testRestClientOverH2c() throws Exception {
+        Http2Transport transport = new Http2Transport(Http2Transport.Mode.PRIOR_KNOWLEDGE, 4);
+        RestClient client = new RestClient(transport, null, h2Uri, false, new ExecutorConfig());
+
+        try {
+            JsonNode result = client.getAsync("/rest/api/latest/serverInfo").get(10, TimeUnit.SECONDS);
+
+            assertEquals("9.4.0", result.get("version").asText());
+        } finally {
+            client.close();
+            transport.close();
+        }
+    }
+
+    @Test
+    public void testCompressedBodyKeepsItsContentEncoding() throws Exception {
+        Http2Transport transport = new Http2Transport(Http2Transport.Mode.PRIOR_KNOWLEDGE, 4);
+        RestClient client = new RestClient(transport, null, h2Uri, false, new ExecutorConfig());
+        client.setRequestCompression(true);
+
+        try {
+            ObjectNode payload = JsonNodeFactory.instance.objectNode();
+            ArrayNode updates = payload.putArray("issueUpdates");
+            for (int i = 0; i < 100; i++) {
+                updates.addObject().putObject("fields").put("summary", "Issue " + i);
+            }
+            client.postAsync("/rest/api/latest/issue/bulk", payload).get(10, TimeUnit.SECONDS);
+
+            Message<HttpRequest, byte[]> received = lastRequest;
+            assertEquals("gzip", received.getHead().getFirstHeader("Content-Encoding").getValue());
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(received.getBody()))) {
+                assertEquals(payload, new ObjectMapper().readTree(in));
+            }
+        } finally {
+            client.close();
+            transport.close();
+        }
+    }
+
+    @Test
+    public void testRejectingExecutorFailsTheFuture() throws Exception {
+        try (Http2Transport transport = new Http2Transport(Http2Transport.Mode.PRIOR_KNOWLEDGE, 4)) {
+            CompletableFuture<HttpResponse> future = transport.executeAsync(
+                    new HttpGet(h2Uri.resolve("/rest/api/latest/serverInfo")), new BasicHttpContext(), task -> {
+                        throw new RejectedExecutionException("saturated");
+                    });
+
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> future.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
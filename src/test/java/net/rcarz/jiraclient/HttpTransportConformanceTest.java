@@ -0,0 +1,172 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The behaviour every {@link HttpTransport} must provide to {@link RestClient}. Each implementation runs this suite
+ * by extending it.
+ */
+public abstract class HttpTransportConformanceTest {
+
+    private StubServer server;
+    private HttpTransport transport;
+    private ExecutorService executor;
+
+    protected abstract HttpTransport createTransport() throws Exception;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        transport = createTransport();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.close();
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    public void testReportsStatusAndHeaders() throws Exception {
+        server.respond("/rest/api/latest/serverInfo", 200, "{}", "X-RateLimit-Remaining", "42");
+
+        HttpResponse response = transport.execute(new HttpGet(uri("/rest/api/latest/serverInfo")),
+                new BasicHttpContext());
+
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        assertEquals("42", response.getFirstHeader("X-RateLimit-Remaining").getValue());
+        assertTrue(response.getFirstHeader("Content-Type").getValue().startsWith("application/json"));
+        EntityUtils.consume(response.getEntity());
+    }
+
+    @Test
+    public void testStreamsLargeBody() throws Exception {
+        byte[] body = new byte[4 * 1024 * 1024];
+        Arrays.fill(body, (byte) 'x');
+        server.respond("/rest/api/latest/search", 200, "application/json", body);
+
+        HttpResponse response = transport.execute(new HttpGet(uri("/rest/api/latest/search")),
+                new BasicHttpContext());
+
+        try (InputStream content = response.getEntity().getContent()) {
+            assertArrayEquals(body, readAll(content));
+        }
+    }
+
+    @Test
+    public void testSendsRequestBodyAndHeaders() throws Exception {
+        server.handle("/rest/api/latest/issue", exchange -> {
+            byte[] received = readAll(exchange.getRequestBody());
+            String echo = exchange.getRequestHeaders().getFirst("X-Atlassian-Token") + ":" +
+                    new String(received, StandardCharsets.UTF_8);
+            StubServer.send(exchange, 201, "text/plain", echo.getBytes(StandardCharsets.UTF_8));
+        });
+        HttpPost post = new HttpPost(uri("/rest/api/latest/issue"));
+        post.setHeader("X-Atlassian-Token", "nocheck");
+        post.setEntity(new StringEntity("{\"fields\":{}}", ContentType.APPLICATION_JSON));
+
+        HttpResponse response = transport.execute(post, new BasicHttpContext());
+
+        assertEquals(201, response.getStatusLine().getStatusCode());
+        assertEquals("nocheck:{\"fields\":{}}", EntityUtils.toString(response.getEntity()));
+    }
+
+    @Test
+    public void testReportsErrorStatusWithBody() throws Exception {
+        server.respond("/rest/api/latest/issue/NOPE-1", 404, "{\"errorMessages\":[\"Issue does not exist\"]}");
+
+        HttpResponse response = transport.execute(new HttpGet(uri("/rest/api/latest/issue/NOPE-1")),
+                new BasicHttpContext());
+
+        assertEquals(404, response.getStatusLine().getStatusCode());
+        assertTrue(EntityUtils.toString(response.getEntity()).contains("Issue does not exist"));
+    }
+
+    @Test
+    public void testExecutesAsynchronously() throws Exception {
+        server.respond("/rest/api/latest/project", 200, "[]");
+
+        CompletableFuture<HttpResponse> future = transport.executeAsync(
+                new HttpGet(uri("/rest/api/latest/project")), new BasicHttpContext(), executor);
+
+        HttpResponse response = future.get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        assertEquals("[]", EntityUtils.toString(response.getEntity()));
+    }
+
+    @Test
+    public void testFailsWithIOExceptionWhenUnreachable() throws Exception {
+        URI closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = URI.create("http://127.0.0.1:" + socket.getLocalPort() + "/rest/api/latest/serverInfo");
+        }
+        final URI target = closedPort;
+
+        assertThrows(IOException.class, () -> transport.execute(new HttpGet(target), new BasicHttpContext()));
+
+        CompletableFuture<HttpResponse> future = transport.executeAsync(new HttpGet(target),
+                new BasicHttpContext(), executor);
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(10, TimeUnit.SECONDS));
+        Throwable cause = exception.getCause();
+        while (!(cause instanceof IOException) && cause != null && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause instanceof IOException);
+    }
+
+    @Test
+    public void testWorksBehindRestClient() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-1", 200, "{\"key\":\"TEST-1\"}");
+        RestClient restClient = new RestClient(transport, null, server.getUri(), false, new ExecutorConfig());
+
+        try {
+            assertEquals("TEST-1", restClient.get("/rest/api/latest/issue/TEST-1").get("key").asText());
+        } finally {
+            restClient.close();
+        }
+    }
+
+    private URI uri(String path) {
+        return server.getUri().resolve(path);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
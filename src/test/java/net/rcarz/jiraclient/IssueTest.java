@@ -1,18 +1,29 @@
 package net.rcarz.jiraclient;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
@@ -21,6 +32,23 @@ import static org.junit.Assert.assertNotNull;
 
 public class IssueTest {
 
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        restClient = new RestClient(new ApacheHttpTransport(new ConnectionPoolConfig()), null, server.getUri(), null,
+                false, new ExecutorConfig());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        restClient.close();
+        restClient.getTransport().close();
+        server.close();
+    }
+
     /**
      * If no exception thrown the test is passed.
      */
@@ -238,6 +266,278 @@ public class IssueTest {
         }
     }
 
+    @Test
+    public void testEditMetadataIsSharedByIssuesOfTheSameScreen() throws Exception {
+        String editmeta = Resource.getBaseUri() + "issue/FILTA-43/editmeta";
+        server.respond(editmeta, 200, EDITMETA_WITH_SUMMARY);
+        server.respond(Resource.getBaseUri() + "issue/FILTA-43", 204, "");
+        restClient.setMetadataCache(new MetadataCache());
+
+        new Issue(restClient, Utils.getTestIssue()).update().field(Field.SUMMARY, "First").execute();
+        new Issue(restClient, Utils.getTestIssue()).update().field(Field.SUMMARY, "Second").execute();
+        assertEquals(1, server.getRequestCount(editmeta));
+
+        // Caller-supplied metadata takes a single request
+        Issue issue = new Issue(restClient, Utils.getTestIssue());
+        issue.update(issue.getEditMetadata()).field(Field.SUMMARY, "Third").execute();
+        assertEquals(1, server.getRequestCount(editmeta));
+        assertEquals(3, server.getRequestCount(Resource.getBaseUri() + "issue/FILTA-43"));
+    }
+
+    @Test
+    public void testStaleEditMetadataIsFetchedAgain() throws Exception {
+        String editmeta = Resource.getBaseUri() + "issue/FILTA-43/editmeta";
+        final AtomicInteger fetches = new AtomicInteger();
+
+        // The summary only became editable after the metadata was first fetched
+        server.handle(editmeta, exchange -> StubServer.send(exchange, 200, "application/json",
+                (fetches.incrementAndGet() == 1 ? "{\"fields\":{}}" : EDITMETA_WITH_SUMMARY)
+                        .getBytes(StandardCharsets.UTF_8)));
+        server.respond(Resource.getBaseUri() + "issue/FILTA-43", 204, "");
+        restClient.setMetadataCache(new MetadataCache());
+
+        Issue.FluentUpdate update = new Issue(restClient, Utils.getTestIssue()).update();
+        update.field(Field.SUMMARY, "Changed").execute();
+        assertEquals(2, fetches.get());
+        assertEquals(1, server.getRequestCount(Resource.getBaseUri() + "issue/FILTA-43"));
+
+        // Metadata that did not change is not retried
+        try {
+            update.field("customfield_1", "value").execute();
+            Assert.fail("expected the update to fail");
+        } catch (JiraException expected) {
+            assertEquals(3, fetches.get());
+        }
+    }
+
+    @Test
+    public void testTransitionsAreSharedByIssuesInTheSameStatus() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        final AtomicInteger posts = new AtomicInteger();
+
+        // The workflow was changed after the first fetch: "Close" went from id 11 to id 21
+        server.handle(Resource.getBaseUri() + "issue/FILTA-43", exchange -> {
+            String id = fetches.incrementAndGet() == 1 ? "11" : "21";
+            StubServer.send(exchange, 200, "application/json", transitionsOf("10004", id, "Close"));
+        });
+        server.handle(Resource.getBaseUri() + "issue/FILTA-43/transitions", exchange -> {
+            posts.incrementAndGet();
+            String body = readBody(exchange.getRequestBody());
+            StubServer.send(exchange, body.contains("\"21\"") ? 204 : 400, "application/json", new byte[0]);
+        });
+        restClient.setMetadataCache(new MetadataCache());
+
+        new Issue(restClient, Utils.getTestIssue()).transition().execute("Close");
+        assertEquals(2, fetches.get());
+        assertEquals(2, posts.get());
+
+        new Issue(restClient, Utils.getTestIssue()).transition().execute("Close");
+        new Issue(restClient, Utils.getTestIssue()).transition().execute(21);
+        assertEquals(2, fetches.get());
+        assertEquals(4, posts.get());
+    }
+
+    @Test
+    public void testTransitionsOfAStaleIssueAreNotCached() throws Exception {
+        String issueUri = Resource.getBaseUri() + "issue/FILTA-43";
+
+        // The issue was moved to status 3 after the snapshot in status 10004 was fetched
+        server.respond(issueUri, 200, "application/json", transitionsOf("3", "31", "Reopen"));
+        MetadataCache cache = new MetadataCache();
+        restClient.setMetadataCache(cache);
+
+        Issue stale = new Issue(restClient, Utils.getTestIssue());
+        assertEquals("Reopen", stale.getTransitions().get(0).getName());
+        assertEquals("Reopen", stale.getTransitions().get(0).getName());
+        assertEquals(2, server.getRequestCount(issueUri));
+        assertEquals(0, cache.size());
+
+        JsonNode json = Utils.getTestIssue();
+        ((ObjectNode) json.get("fields").get("status")).put("id", "3");
+        Issue fresh = new Issue(restClient, json);
+        assertEquals("Reopen", fresh.getTransitions().get(0).getName());
+        assertEquals("Reopen", fresh.getTransitions().get(0).getName());
+        assertEquals(3, server.getRequestCount(issueUri));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSearchPrefetchesTheNextPageUntilClosed() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            server.handle(Resource.getBaseUri() + "search", exchange -> {
+                String query = exchange.getRequestURI().getQuery();
+                int startAt = Integer.parseInt(query.replaceAll(".*startAt=(\\d+).*", "$1"));
+                if (startAt > 0) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                StubServer.send(exchange, 200, "application/json", searchPage(startAt, 3));
+            });
+
+            Issue.SearchResult result = Issue.search(restClient, "project = TEST", null, null, 1, null)
+                    .prefetch(true);
+            assertEquals(1, server.getRequestCount(Resource.getBaseUri() + "search"));
+
+            Iterator<Issue> issues = result.iterator();
+            assertEquals("TEST-1", issues.next().getKey());
+            for (int i = 0; i < 50 && server.getRequestCount(Resource.getBaseUri() + "search") < 2; i++) {
+                Thread.sleep(20L);
+            }
+            assertEquals(2, server.getRequestCount(Resource.getBaseUri() + "search"));
+
+            result.close();
+            assertFalse(issues.hasNext());
+            release.countDown();
+            assertEquals(2, server.getRequestCount(Resource.getBaseUri() + "search"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testSearchDoesNotPrefetchByDefault() throws Exception {
+        server.handle(Resource.getBaseUri() + "search", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            int startAt = Integer.parseInt(query.replaceAll(".*startAt=(\\d+).*", "$1"));
+            StubServer.send(exchange, 200, "application/json", searchPage(startAt, 3));
+        });
+
+        Iterator<Issue> issues = Issue.search(restClient, "project = TEST", null, null, 1, null).iterator();
+        assertEquals("TEST-1", issues.next().getKey());
+        Thread.sleep(100L);
+        assertEquals(1, server.getRequestCount(Resource.getBaseUri() + "search"));
+
+        assertEquals("TEST-2", issues.next().getKey());
+        assertEquals(2, server.getRequestCount(Resource.getBaseUri() + "search"));
+    }
+
+    @Test
+    public void testSearchIteratesOverPrefetchedPages() throws Exception {
+        server.handle(Resource.getBaseUri() + "search", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            int startAt = Integer.parseInt(query.replaceAll(".*startAt=(\\d+).*", "$1"));
+            StubServer.send(exchange, 200, "application/json", searchPage(startAt, 3));
+        });
+
+        Iterator<Issue> issues = Issue.search(restClient, "project = TEST", null, null, 1, null).prefetch(true)
+                .iterator();
+        assertEquals("TEST-1", issues.next().getKey());
+        assertEquals("TEST-2", issues.next().getKey());
+        assertEquals("TEST-3", issues.next().getKey());
+        assertFalse(issues.hasNext());
+        assertEquals(4, server.getRequestCount(Resource.getBaseUri() + "search"));
+    }
+
+    @Test
+    public void testBulkCreateIsChunkedAndKeepsTheInputOrder() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        // Fails the issues whose summary ends in 7, except 17, to check the positions within each chunk
+        server.handle(Resource.getBaseUri() + "issue/bulk", exchange -> {
+            JsonNode updates = mapper.readTree(readBody(exchange.getRequestBody())).get("issueUpdates");
+            ObjectNode result = mapper.createObjectNode();
+            for (int i = 0; i < updates.size(); i++) {
+                String summary = updates.get(i).get("fields").get("summary").asText();
+                int number = Integer.parseInt(summary.substring("Issue ".length()));
+                if (number % 10 == 7 && number != 17) {
+                    ObjectNode failure = result.withArray("errors").addObject();
+                    failure.put("status", 400).put("failedElementNumber", i);
+                    failure.putObject("elementErrors").putObject("errors").put("summary", "Rejected");
+                } else {
+                    result.withArray("issues").addObject().put("key", "TEST-" + number);
+                }
+            }
+            result.withArray("issues");
+            StubServer.send(exchange, 201, "application/json", mapper.writeValueAsBytes(result));
+        });
+        JsonNode createmeta = mapper.readTree("{"
+                + "\"project\":{\"name\":\"Project\",\"schema\":{\"type\":\"project\"}},"
+                + "\"issuetype\":{\"name\":\"Issue Type\",\"schema\":{\"type\":\"issuetype\"}},"
+                + "\"summary\":{\"name\":\"Summary\",\"schema\":{\"type\":\"string\"}}}");
+
+        Issue.FluentCreateComposed bulk = Issue.createBulk(restClient, createmeta, "TEST", "1", null);
+        for (int i = 0; i < 120; i++) {
+            bulk.createNewIssue().field(Field.SUMMARY, "Issue " + i);
+        }
+        StringBuffer progress = new StringBuffer();
+        Issue.Results results = bulk.parallelism(3)
+                .progress((processed, total, failed) -> progress.append(processed).append('/').append(total)
+                        .append(' ').append(failed).append(", "))
+                .execute();
+
+        assertEquals(3, server.getRequestCount(Resource.getBaseUri() + "issue/bulk"));
+        assertEquals(109, results.getCreated().size());
+        assertEquals(11, results.getFailed().size());
+        for (Issue.ResultCreated created : results.getCreated()) {
+            assertEquals("Issue " + created.getIndex(), created.getName());
+            assertEquals("TEST-" + created.getIndex(), created.getKey());
+        }
+        assertEquals("Issue 7", results.getFailed().get(0).getName());
+        assertEquals(27, results.getFailed().get(1).getIndex());
+        assertEquals("Issue 117", results.getFailed().get(10).getName());
+        assertEquals("summary -> Rejected", results.getFailed().get(10).getMessages().get(0));
+        assertTrue(progress.toString(), progress.toString().endsWith("120/120 11, "));
+    }
+
+    @Test
+    public void testBulkCreateFailuresWithoutDetailsKeepTheKeysInPlace() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        server.respond(Resource.getBaseUri() + "issue/bulk", 201, "{"
+                + "\"issues\":[{\"id\":\"10000\",\"key\":\"TEST-1\"},{\"id\":\"10003\",\"key\":\"TEST-4\"}],"
+                + "\"errors\":[{\"status\":400,\"elementErrors\":{\"errorMessages\":[],"
+                + "\"errors\":{\"summary\":\"Rejected\"}},\"failedElementNumber\":1},"
+                + "{\"status\":500,\"failedElementNumber\":2}]}");
+        JsonNode createmeta = mapper.readTree("{"
+                + "\"project\":{\"name\":\"Project\",\"schema\":{\"type\":\"project\"}},"
+                + "\"issuetype\":{\"name\":\"Issue Type\",\"schema\":{\"type\":\"issuetype\"}},"
+                + "\"summary\":{\"name\":\"Summary\",\"schema\":{\"type\":\"string\"}}}");
+
+        Issue.FluentCreateComposed bulk = Issue.createBulk(restClient, createmeta, "TEST", "1", null);
+        for (int i = 1; i <= 4; i++) {
+            bulk.createNewIssue().field(Field.SUMMARY, "Issue " + i);
+        }
+        Issue.Results results = bulk.execute();
+
+        assertEquals(2, results.getCreated().size());
+        assertEquals("Issue 1", results.getCreated().get(0).getName());
+        assertEquals("TEST-1", results.getCreated().get(0).getKey());
+        assertEquals("Issue 4", results.getCreated().get(1).getName());
+        assertEquals("TEST-4", results.getCreated().get(1).getKey());
+        assertEquals(2, results.getFailed().size());
+        assertEquals(400, results.getFailed().get(0).getErrorCode());
+        assertEquals("Issue 3", results.getFailed().get(1).getName());
+        assertEquals(500, results.getFailed().get(1).getErrorCode());
+    }
+
+    private static byte[] searchPage(int startAt, int total) {
+        String issues = startAt < total ? "{\"key\":\"TEST-" + (startAt + 1) + "\",\"fields\":{}}" : "";
+        return ("{\"startAt\":" + startAt + ",\"maxResults\":1,\"total\":" + total + ",\"issues\":[" + issues
+                + "]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] transitionsOf(String statusId, String transitionId, String transitionName) {
+        return ("{\"key\":\"FILTA-43\",\"fields\":{\"status\":{\"id\":\"" + statusId + "\"}},"
+                + "\"transitions\":[{\"id\":\"" + transitionId + "\",\"name\":\"" + transitionName
+                + "\",\"fields\":{}}]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static final String EDITMETA_WITH_SUMMARY =
+            "{\"fields\":{\"summary\":{\"name\":\"Summary\",\"schema\":{\"type\":\"string\"}}}}";
+
     private static class TestableRestClient extends RestClient {
 
         public String postPath = "not called";
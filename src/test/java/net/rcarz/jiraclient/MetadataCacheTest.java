@@ -0,0 +1,263 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MetadataCacheTest {
+
+    private static MetadataCache.Loader counting(final AtomicInteger loads, final String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return JsonNodeFactory.instance.objectNode().put("name", name);
+        };
+    }
+
+    @Test
+    public void testEntriesAreServedUntilTheyExpire() throws Exception {
+        MetadataCache cache = new MetadataCache().ttl(MetadataCache.Kind.STATUS, 200L).refreshAhead(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "Open"));
+        JsonNode cached = cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "Open"));
+        assertEquals("Open", cached.get("name").asText());
+        assertEquals(1, loads.get());
+
+        // Served trees are copies
+        ((ObjectNode) cached).put("name", "Changed");
+        assertEquals("Open", cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "Open")).get("name").asText());
+
+        Thread.sleep(250L);
+        cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "Open"));
+        assertEquals(2, loads.get());
+        assertEquals(2L, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        MetadataCache cache = new MetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(MetadataCache.Kind.PRIORITY, "1", counting(loads, "High"));
+        cache.get(MetadataCache.Kind.PRIORITY, "2", counting(loads, "Low"));
+        cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "Open"));
+
+        cache.invalidate(MetadataCache.Kind.PRIORITY, "1");
+        assertEquals(2, cache.size());
+        cache.invalidate(MetadataCache.Kind.PRIORITY);
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLoadRacingAnInvalidationIsNotCached() throws Exception {
+        final MetadataCache cache = new MetadataCache();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final MetadataCache.Loader slowLoader = () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return JsonNodeFactory.instance.objectNode().put("name", "Before");
+        };
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<JsonNode> result = caller.submit(() -> cache.get(MetadataCache.Kind.STATUS, "1", slowLoader));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // The resource changes while the load is in flight: its payload may predate the change
+            cache.invalidate(MetadataCache.Kind.STATUS, "1");
+            release.countDown();
+
+            assertEquals("Before", result.get(5, TimeUnit.SECONDS).get("name").asText());
+            assertEquals(0, cache.size());
+        } finally {
+            caller.shutdown();
+        }
+
+        JsonNode reloaded = cache.get(MetadataCache.Kind.STATUS, "1", counting(loads, "After"));
+        assertEquals("After", reloaded.get("name").asText());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        final MetadataCache cache = new MetadataCache();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final MetadataCache.Loader slowLoader = () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return JsonNodeFactory.instance.objectNode().put("name", "Bug");
+        };
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = callers.submit(() -> cache.get(MetadataCache.Kind.ISSUE_TYPE, "1", slowLoader));
+            }
+            Thread.sleep(200L);
+            release.countDown();
+
+            for (Future<?> result : results) {
+                assertEquals("Bug", ((JsonNode) result.get(5, TimeUnit.SECONDS)).get("name").asText());
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testEntriesAreRefreshedAhead() throws Exception {
+        MetadataCache cache = new MetadataCache().ttl(MetadataCache.Kind.PROJECT, 10000L).refreshAhead(0.01);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(MetadataCache.Kind.PROJECT, "TEST", counting(loads, "Test"));
+        Thread.sleep(150L);
+        cache.get(MetadataCache.Kind.PROJECT, "TEST", counting(loads, "Test"));
+
+        // The caller got the cached entry while the refresh runs in the background
+        for (int i = 0; i < 50 && loads.get() < 2; i++) {
+            Thread.sleep(20L);
+        }
+        assertEquals(2, loads.get());
+        assertEquals(1L, cache.getRefreshCount());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+    @Test
+    public void testBoundedKindsEvictTheLeastRecentlyUsedEntry() throws Exception {
+        MetadataCache cache = new MetadataCache().maxEntries(MetadataCache.Kind.CREATE_METADATA, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/1", counting(loads, "Bug"));
+        Thread.sleep(5L);
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/2", counting(loads, "Task"));
+        Thread.sleep(5L);
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/1", counting(loads, "Bug"));
+        Thread.sleep(5L);
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/3", counting(loads, "Story"));
+        assertEquals(2, cache.size());
+
+        // TEST/2 was used least recently
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/1", counting(loads, "Bug"));
+        assertEquals(3, loads.get());
+        cache.get(MetadataCache.Kind.CREATE_METADATA, "TEST/2", counting(loads, "Task"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testCreateMetadataIsDroppedWhenFieldsAreRejected() throws Exception {
+        StubServer server = new StubServer();
+        RestClient restClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()),
+                server.getUri());
+        String createmeta = Resource.getBaseUri() + "issue/createmeta/TEST/issuetypes/1";
+        try {
+            server.respond(Resource.getBaseUri() + "serverInfo", 200,
+                    "{\"deploymentType\":\"Server\",\"versionNumbers\":[9,4,0]}");
+            server.respond(createmeta, 200, "{\"values\":["
+                    + "{\"fieldId\":\"project\",\"name\":\"Project\",\"schema\":{\"type\":\"project\"}},"
+                    + "{\"fieldId\":\"issuetype\",\"name\":\"Issue Type\",\"schema\":{\"type\":\"issuetype\"}},"
+                    + "{\"fieldId\":\"summary\",\"name\":\"Summary\",\"schema\":{\"type\":\"string\"}}]}");
+            server.respond(Resource.getBaseUri() + "issue/", 400,
+                    "{\"errorMessages\":[],\"errors\":{\"summary\":\"Field 'summary' cannot be set.\"}}");
+            restClient.setMetadataCache(new MetadataCache());
+
+            Issue.create(restClient, "TEST", "1", null);
+            Issue.FluentCreate create = Issue.create(restClient, "TEST", "1", null);
+            assertEquals(1, server.getRequestCount(createmeta));
+
+            try {
+                create.field(Field.SUMMARY, "Rejected").execute();
+                fail("expected the create to fail");
+            } catch (JiraException expected) {
+                // The field configuration may have changed, the next create reloads it
+            }
+
+            Issue.create(restClient, "TEST", "1", null);
+            assertEquals(2, server.getRequestCount(createmeta));
+        } finally {
+            restClient.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testCreateMetadataIsDroppedWhenBulkFieldsAreRejected() throws Exception {
+        StubServer server = new StubServer();
+        RestClient restClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()),
+                server.getUri());
+        String createmeta = Resource.getBaseUri() + "issue/createmeta/TEST/issuetypes/1";
+        try {
+            server.respond(Resource.getBaseUri() + "serverInfo", 200,
+                    "{\"deploymentType\":\"Server\",\"versionNumbers\":[9,4,0]}");
+            server.respond(createmeta, 200, "{\"values\":["
+                    + "{\"fieldId\":\"project\",\"name\":\"Project\",\"schema\":{\"type\":\"project\"}},"
+                    + "{\"fieldId\":\"issuetype\",\"name\":\"Issue Type\",\"schema\":{\"type\":\"issuetype\"}},"
+                    + "{\"fieldId\":\"summary\",\"name\":\"Summary\",\"schema\":{\"type\":\"string\"}}]}");
+            // A partial failure as Jira sends it: the status is on the entry, not in elementErrors
+            server.respond(Resource.getBaseUri() + "issue/bulk", 201, "{"
+                    + "\"issues\":[{\"id\":\"10000\",\"key\":\"TEST-1\",\"self\":\"http://localhost/issue/10000\"}],"
+                    + "\"errors\":[{\"status\":400,\"elementErrors\":{\"errorMessages\":[],"
+                    + "\"errors\":{\"summary\":\"Field 'summary' cannot be set.\"}},\"failedElementNumber\":1}]}");
+            restClient.setMetadataCache(new MetadataCache());
+
+            JsonNode metadata = Issue.getCreateMetadata(restClient, "TEST", "1");
+            Issue.FluentCreateComposed bulk = Issue.createBulk(restClient, metadata, "TEST", "1", null);
+            bulk.createNewIssue().field(Field.SUMMARY, "Created");
+            bulk.createNewIssue().field(Field.SUMMARY, "Rejected");
+            Issue.Results results = bulk.execute();
+            assertEquals(1, results.getFailed().size());
+            assertEquals(1, server.getRequestCount(createmeta));
+
+            Issue.create(restClient, "TEST", "1", null);
+            assertEquals(2, server.getRequestCount(createmeta));
+        } finally {
+            restClient.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testResourcesUseTheCache() throws Exception {
+        StubServer server = new StubServer();
+        RestClient restClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()),
+                server.getUri());
+        try {
+            server.respond(Resource.getBaseUri() + "status/1", 200, "{\"id\":\"1\",\"name\":\"Open\"}");
+            restClient.setMetadataCache(new MetadataCache());
+
+            Status first = Status.get(restClient, "1");
+            Status second = Status.get(restClient, "1");
+
+            assertEquals("Open", first.getName());
+            assertEquals("Open", second.getName());
+            assertEquals(1, server.getRequestCount(Resource.getBaseUri() + "status/1"));
+            assertTrue(restClient.getMetadataCache().getHitCount() == 1L);
+        } finally {
+            restClient.close();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package net.rcarz.jiraclient;
+
+public class PooledApacheHttpTransportTest extends HttpTransportConformanceTest {
+
+    @Override
+    protected HttpTransport createTransport() {
+        return new ApacheHttpTransport(new ConnectionPoolConfig().maxPerRoute(4));
+    }
+}
@@ -0,0 +1,67 @@
+package net.rcarz.jiraclient;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimitGateTest {
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @Test
+    public void testIdleGateAdmitsImmediately() {
+        RateLimitGate gate = new RateLimitGate();
+
+        assertEquals(0L, gate.admit(0L));
+        assertEquals(0L, gate.admit(0L));
+    }
+
+    @Test
+    public void testPauseHoldsBackAllRequests() {
+        RateLimitGate gate = new RateLimitGate(1000L, 100L);
+        gate.pause(2000L, 0L);
+
+        // The first request goes out at the resume time, the next ones are spaced out behind it
+        long first = gate.admit(millis(500L));
+        long second = gate.admit(millis(500L));
+
+        assertTrue("first waited " + first, first >= 1500L && first <= 1501L);
+        assertTrue("second waited " + second, second >= 1599L && second <= 1601L);
+    }
+
+    @Test
+    public void testRampUpShrinksTheSpacing() {
+        RateLimitGate gate = new RateLimitGate(1000L, 100L);
+        gate.pause(0L, 0L);
+
+        gate.admit(0L);
+        long early = gate.admit(0L);
+
+        // Three quarters into the ramp-up, the spacing is a quarter of the initial one
+        gate.admit(millis(750L));
+        long late = gate.admit(millis(750L));
+
+        assertTrue("early spacing " + early, early >= 100L && early <= 101L);
+        assertTrue("late spacing " + late, late >= 25L && late <= 26L);
+
+        // Once the ramp-up is over, requests go straight through
+        assertEquals(0L, gate.admit(millis(1000L)));
+        assertEquals(0L, gate.admit(millis(1000L)));
+    }
+
+    @Test
+    public void testPauseIsNeverShortened() {
+        RateLimitGate gate = new RateLimitGate(0L, 0L);
+        gate.pause(5000L, 0L);
+        gate.pause(1000L, 0L);
+
+        long delay = gate.admit(0L);
+        assertTrue("delay was " + delay, delay >= 5000L && delay <= 5001L);
+        assertEquals(2L, gate.getPauseCount());
+    }
+}
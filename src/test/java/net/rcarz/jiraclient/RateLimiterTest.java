@@ -0,0 +1,91 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static HttpResponse response(int limit, int remaining, int fillRate, int interval) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.addHeader("X-RateLimit-Limit", String.valueOf(limit));
+        response.addHeader("X-RateLimit-Remaining", String.valueOf(remaining));
+        response.addHeader("X-RateLimit-FillRate", String.valueOf(fillRate));
+        response.addHeader("X-RateLimit-Interval-Seconds", String.valueOf(interval));
+        return response;
+    }
+
+    @Test
+    public void testUnlearnedLimiterDoesNotDelay() {
+        RateLimiter limiter = new RateLimiter();
+
+        limiter.update(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"), 0L);
+
+        assertFalse(limiter.isLearned());
+        assertEquals(0L, limiter.reserve(0L));
+    }
+
+    @Test
+    public void testBurstThenPaced() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.update(response(3, 3, 2, 1), 0L);
+
+        assertTrue(limiter.isLearned());
+        assertEquals(0L, limiter.reserve(0L));
+        assertEquals(0L, limiter.reserve(0L));
+        assertEquals(0L, limiter.reserve(0L));
+
+        // Two tokens per second: the fourth request waits half a second
+        long delay = limiter.reserve(0L);
+        assertTrue("delay was " + delay, delay >= 500L && delay <= 501L);
+
+        // and the fifth one a full second
+        delay = limiter.reserve(0L);
+        assertTrue("delay was " + delay, delay >= 1000L && delay <= 1001L);
+    }
+
+    @Test
+    public void testRefillIsCappedByLimit() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.update(response(2, 2, 10, 1), 0L);
+
+        limiter.reserve(0L);
+        limiter.reserve(0L);
+
+        // A long idle period refills up to the limit only
+        assertEquals(0L, limiter.reserve(60 * SECOND));
+        assertEquals(0L, limiter.reserve(60 * SECOND));
+        assertTrue(limiter.reserve(60 * SECOND) > 0L);
+    }
+
+    @Test
+    public void testRemainingResynchronisesTheBucket() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.update(response(100, 100, 10, 1), 0L);
+
+        // Another client spent most of the shared budget
+        limiter.update(response(100, 0, 10, 1), 0L);
+
+        long delay = limiter.reserve(0L);
+        assertTrue("delay was " + delay, delay >= 100L && delay <= 101L);
+    }
+
+    @Test
+    public void testFillRateOverInterval() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.update(response(1, 0, 6, 60), 0L);
+
+        assertEquals(0.1, limiter.getFillRatePerSecond(), 1e-9);
+        long delay = limiter.reserve(0L);
+        assertTrue("delay was " + delay, delay >= 10000L && delay <= 10001L);
+    }
+}
@@ -0,0 +1,92 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ResponseCacheTest {
+
+    private static HttpResponse response(String etag) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (etag != null) {
+            response.addHeader("ETag", etag);
+        }
+        return response;
+    }
+
+    private static JsonNode tree(String key) {
+        return JsonNodeFactory.instance.objectNode().put("key", key);
+    }
+
+    @Test
+    public void testValidatorsAreSent() {
+        ResponseCache cache = new ResponseCache();
+        URI uri = URI.create("http://jira/rest/api/2/issue/TEST-1");
+        HttpResponse response = response("\"v1\"");
+        response.addHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+        cache.put(uri, response, tree("TEST-1"));
+
+        HttpGet get = new HttpGet(uri);
+        cache.prepare(get, uri);
+
+        assertEquals("\"v1\"", get.getFirstHeader("If-None-Match").getValue());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", get.getFirstHeader("If-Modified-Since").getValue());
+        assertEquals(1L, cache.getRevalidationCount());
+    }
+
+    @Test
+    public void testResponsesWithoutValidatorsAreNotCached() {
+        ResponseCache cache = new ResponseCache();
+        URI uri = URI.create("http://jira/rest/api/2/myself");
+        cache.put(uri, response(null), tree("me"));
+
+        HttpGet get = new HttpGet(uri);
+        cache.prepare(get, uri);
+
+        assertFalse(get.containsHeader("If-None-Match"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+    @Test
+    public void testCachedTreesAreCopies() {
+        ResponseCache cache = new ResponseCache();
+        URI uri = URI.create("http://jira/rest/api/2/issue/TEST-1");
+        cache.put(uri, response("\"v1\""), tree("TEST-1"));
+
+        ((ObjectNode) cache.getNotModified(uri)).put("key", "changed");
+
+        assertEquals("TEST-1", cache.getNotModified(uri).get("key").asText());
+        assertEquals(2L, cache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ResponseCache cache = new ResponseCache(2);
+        URI first = URI.create("http://jira/rest/api/2/issue/TEST-1");
+        URI second = URI.create("http://jira/rest/api/2/issue/TEST-2");
+        URI third = URI.create("http://jira/rest/api/2/issue/TEST-3");
+
+        cache.put(first, response("\"1\""), tree("TEST-1"));
+        cache.put(second, response("\"2\""), tree("TEST-2"));
+        cache.getNotModified(first);
+        cache.put(third, response("\"3\""), tree("TEST-3"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.getNotModified(second));
+        assertEquals("TEST-1", cache.getNotModified(first).get("key").asText());
+        assertEquals(1L, cache.getEvictionCount());
+    }
+}
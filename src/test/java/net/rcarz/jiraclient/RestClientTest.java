@@ -0,0 +1,828 @@
+package net.rcarz.jiraclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class RestClientTest {
+
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        restClient = new RestClient(new DefaultHttpClient(), server.getUri());
+    }
+
+    @After
+    public void tearDown() {
+        restClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testLargeSearchPayloadIsParsed() throws Exception {
+        StringBuilder body = new StringBuilder("{\"startAt\":0,\"maxResults\":1000,\"total\":1000,\"issues\":[");
+        for (int i = 0; i < 1000; i++) {
+            body.append(i == 0 ? "" : ",")
+                .append("{\"id\":\"").append(i).append("\",\"key\":\"TEST-").append(i)
+                .append("\",\"fields\":{\"summary\":\"Summary\\nwith a line break\"}}");
+        }
+        server.respond("/rest/api/latest/search", 200, body.append("]}").toString());
+
+        JsonNode result = restClient.get("/rest/api/latest/search");
+
+        assertEquals(1000, result.get("issues").size());
+        assertEquals("TEST-999", result.get("issues").get(999).get("key").asText());
+        assertEquals("Summary\nwith a line break", result.get("issues").get(0).get("fields").get("summary").asText());
+    }
+
+    @Test
+    public void testResponseCharsetIsHonoured() throws Exception {
+        server.respond("/rest/api/latest/status/1", 200, "application/json;charset=ISO-8859-1",
+                "{\"name\":\"R\u00e9ouvert\"}".getBytes(StandardCharsets.ISO_8859_1));
+
+        JsonNode result = restClient.get("/rest/api/latest/status/1");
+
+        assertEquals("R\u00e9ouvert", result.get("name").asText());
+    }
+
+    @Test
+    public void testEmptyResponseReturnsNull() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-1", 204, "");
+
+        assertNull(restClient.delete("/rest/api/latest/issue/TEST-1"));
+    }
+
+    @Test
+    public void testErrorResponseIsBuffered() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-2", 404, "{\"errorMessages\":[\"Issue does not exist\"]}");
+
+        RestException exception = assertThrows(RestException.class,
+                () -> restClient.get("/rest/api/latest/issue/TEST-2"));
+
+        assertEquals(404, exception.getHttpStatusCode());
+        assertTrue(exception.getHttpResult().contains("Issue does not exist"));
+    }
+
+    @Test
+    public void testCompressedResponsesAreDecoded() throws Exception {
+        StringBuilder body = new StringBuilder("{\"issues\":[");
+        for (int i = 0; i < 500; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"key\":\"TEST-").append(i).append("\"}");
+        }
+        final byte[] json = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+        server.handle("/rest/api/latest/search", exchange -> {
+            assertEquals("gzip, deflate", exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            boolean gzip = exchange.getRequestURI().getQuery() == null;
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (OutputStream out = gzip ? new GZIPOutputStream(encoded) : new DeflaterOutputStream(encoded)) {
+                out.write(json);
+            }
+            StubServer.send(exchange, 200, "application/json", encoded.toByteArray(),
+                    "Content-Encoding", gzip ? "gzip" : "deflate");
+        });
+
+        JsonNode gzipped = restClient.get("/rest/api/latest/search");
+        JsonNode deflated = restClient.get("/rest/api/latest/search", Collections.singletonMap("encoding", "deflate"));
+
+        assertEquals(500, gzipped.get("issues").size());
+        assertEquals("TEST-499", gzipped.get("issues").get(499).get("key").asText());
+        assertEquals(500, deflated.get("issues").size());
+
+        TransferMetrics metrics = restClient.getTransferMetrics();
+        assertEquals(2L, metrics.getCompressedResponses());
+        assertEquals(2L * json.length, metrics.getDecodedBytes());
+        assertTrue(metrics.getWireBytes() < json.length);
+    }
+
+    @Test
+    public void testLargeRequestBodiesAreCompressed() throws Exception {
+        final AtomicReference<String> received = new AtomicReference<>();
+        server.handle("/rest/api/latest/issue/bulk", exchange -> {
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    decoded.write(buffer, 0, n);
+                }
+                received.set(decoded.toString("UTF-8"));
+            }
+            StubServer.send(exchange, 201, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        restClient.setRequestCompression(true);
+
+        ObjectNode payload = JsonNodeFactory.instance.objectNode();
+        ArrayNode updates = payload.putArray("issueUpdates");
+        for (int i = 0; i < 100; i++) {
+            updates.addObject().putObject("fields").put("summary", "Issue " + i);
+        }
+        restClient.post("/rest/api/latest/issue/bulk", payload);
+
+        assertEquals(payload.toString(), received.get());
+    }
+
+    @Test
+    public void testNotModifiedIsServedFromCache() throws Exception {
+        server.handle("/rest/api/latest/project/TEST", exchange -> {
+            if ("\"42\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                StubServer.send(exchange, 304, null, new byte[0], "ETag", "\"42\"");
+            } else {
+                StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST\"}".getBytes(StandardCharsets.UTF_8),
+                        "ETag", "\"42\"");
+            }
+        });
+        ResponseCache cache = new ResponseCache();
+        restClient.setResponseCache(cache);
+
+        JsonNode first = restClient.get("/rest/api/latest/project/TEST");
+        JsonNode second = restClient.get("/rest/api/latest/project/TEST");
+
+        assertEquals("TEST", first.get("key").asText());
+        assertEquals(first, second);
+        assertEquals(1L, cache.getMissCount());
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(2, server.getRequestCount("/rest/api/latest/project/TEST"));
+    }
+
+    @Test
+    public void testNotModifiedAfterAnEvictionIsSentAgain() throws Exception {
+        ResponseCache cache = new ResponseCache();
+        server.handle("/rest/api/latest/project/TEST", exchange -> {
+            if (exchange.getRequestHeaders().containsKey("If-None-Match")) {
+                // The cached response goes away between the sending of its validators and the 304
+                cache.clear();
+                StubServer.send(exchange, 304, null, new byte[0], "ETag", "\"42\"");
+            } else {
+                StubServer.send(exchange, 200, "application/json",
+                        "{\"key\":\"TEST\"}".getBytes(StandardCharsets.UTF_8), "ETag", "\"42\"");
+            }
+        });
+        restClient.setResponseCache(cache);
+
+        restClient.get("/rest/api/latest/project/TEST");
+        JsonNode second = restClient.get("/rest/api/latest/project/TEST");
+
+        assertEquals("TEST", second.get("key").asText());
+        assertEquals(0L, cache.getHitCount());
+        assertEquals(3, server.getRequestCount("/rest/api/latest/project/TEST"));
+    }
+
+    @Test
+    public void testGetAsync() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-3", 200, "{\"key\":\"TEST-3\"}");
+
+        CompletableFuture<JsonNode> future = restClient.getAsync("/rest/api/latest/issue/TEST-3");
+
+        assertEquals("TEST-3", future.get(10, TimeUnit.SECONDS).get("key").asText());
+    }
+
+    @Test
+    public void testAsyncFailureIsUnwrapped() throws Exception {
+        server.respond("/rest/api/latest/issue", 400, "{\"errors\":{\"summary\":\"required\"}}");
+
+        CompletableFuture<JsonNode> future = restClient.postAsync("/rest/api/latest/issue",
+                JsonNodeFactory.instance.objectNode());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RestException);
+        assertEquals(400, ((RestException) exception.getCause()).getHttpStatusCode());
+    }
+
+    @Test
+    public void testAsyncRetryOnRateLimit() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.handle("/rest/api/latest/project", exchange -> {
+            if (calls.incrementAndGet() < 3) {
+                StubServer.send(exchange, 429, null, new byte[0],
+                        "X-RateLimit-Interval-Seconds", "1", "X-RateLimit-FillRate", "100");
+            } else {
+                StubServer.send(exchange, 200, "application/json", "[]".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        RestClient retryingClient = new RestClient(new DefaultHttpClient(), null, server.getUri(), null, true);
+
+        JsonNode result = retryingClient.getAsync("/rest/api/latest/project").get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isArray());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testRetryPolicyRetriesServerAndNetworkErrors() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                StubServer.send(exchange, 503, null, new byte[0]);
+            } else if (call == 2) {
+                // Drops the connection without answering
+                exchange.getRequestBody().close();
+            } else {
+                StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        restClient.setRetryPolicy(new RetryPolicy());
+
+        JsonNode result = restClient.get("/rest/api/latest/issue/TEST-3");
+
+        assertEquals("TEST-3", result.get("key").asText());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testMetricsRecordAttemptsRetriesAndBackoff() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                StubServer.send(exchange, 429, null, new byte[0], "Retry-After", "1");
+            } else {
+                StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        RestClient retryingClient = new RestClient(new DefaultHttpClient(), null, server.getUri(), null, true);
+        InMemoryRestMetrics metrics = new InMemoryRestMetrics();
+        retryingClient.setMetrics(metrics);
+
+        try {
+            retryingClient.get("/rest/api/latest/issue/TEST-3");
+        } finally {
+            retryingClient.close();
+        }
+
+        InMemoryRestMetrics.Endpoint endpoint = metrics.getEndpoint("GET", "/issue/{key}");
+        assertEquals(2, endpoint.getAttemptCount());
+        assertEquals(Long.valueOf(1), endpoint.getStatusCounts().get(429));
+        assertEquals(Long.valueOf(1), endpoint.getStatusCounts().get(200));
+        assertEquals(1, endpoint.getRateLimitedCount());
+        assertEquals(1, endpoint.getRetryCount());
+        assertTrue("backoff " + endpoint.getBackoffMillis(), endpoint.getBackoffMillis() > 0L);
+        assertEquals(16, endpoint.getWireBytes());
+    }
+
+    @Test
+    public void testListenersFollowEachAttempt() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final StringBuffer traceHeaders = new StringBuffer();
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            traceHeaders.append(exchange.getRequestHeaders().getFirst("traceparent")).append(' ');
+            if (calls.incrementAndGet() == 1) {
+                StubServer.send(exchange, 503, null, new byte[0]);
+            } else {
+                StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        final StringBuffer events = new StringBuffer();
+        restClient.setRetryPolicy(new RetryPolicy());
+        restClient.addRequestListener(new RequestListener() {
+            @Override
+            public void beforeSend(HttpRequest request, int attempt, long elapsedNanos) {
+                request.setHeader("traceparent", "span-" + attempt);
+                events.append("send ").append(attempt).append(", ");
+            }
+
+            @Override
+            public void onResponse(HttpRequest request, HttpResponse response, int attempt, long latencyNanos,
+                                   long elapsedNanos) {
+                assertTrue(latencyNanos > 0 && elapsedNanos >= latencyNanos);
+                events.append(response.getStatusLine().getStatusCode()).append(", ");
+            }
+
+            @Override
+            public void onRetry(HttpRequest request, int attempt, int status, long waitMillis) {
+                events.append("retry ").append(status).append(", ");
+            }
+        });
+        restClient.addRequestListener(new RequestListener() {
+            @Override
+            public void beforeSend(HttpRequest request, int attempt, long elapsedNanos) {
+                throw new IllegalStateException("Broken listener");
+            }
+        });
+
+        JsonNode result = restClient.get("/rest/api/latest/issue/TEST-3");
+
+        assertEquals("TEST-3", result.get("key").asText());
+        assertEquals("send 0, 503, retry 503, send 1, 200, ", events.toString());
+        assertEquals("span-0 span-1 ", traceHeaders.toString());
+    }
+
+    @Test
+    public void testHeadersOfACall() throws Exception {
+        final StringBuffer headers = new StringBuffer();
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            headers.append(exchange.getRequestHeaders().getFirst("X-Correlation-Id")).append(' ')
+                    .append(exchange.getRequestHeaders().getFirst("X-Client"));
+            StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        restClient.setRequestOptions(new RequestOptions().header("X-Client", "worker").header("X-Correlation-Id", "none"));
+
+        restClient.get(restClient.buildURI("/rest/api/latest/issue/TEST-3"),
+                new RequestOptions().header("X-Correlation-Id", "42"));
+
+        assertEquals("42 worker", headers.toString());
+    }
+
+    @Test
+    public void testRetryPolicyLeavesPostAlone() throws Exception {
+        server.respond("/rest/api/latest/issue", 503, "");
+        restClient.setRetryPolicy(new RetryPolicy());
+
+        RestException exception = assertThrows(RestException.class,
+                () -> restClient.post("/rest/api/latest/issue", JsonNodeFactory.instance.objectNode()));
+
+        assertEquals(503, exception.getHttpStatusCode());
+        assertEquals(1, server.getRequestCount("/rest/api/latest/issue"));
+    }
+
+    @Test
+    public void testDeadlineAbortsSlowRequest() throws Exception {
+        server.handle("/rest/api/latest/search", exchange -> {
+            try {
+                Thread.sleep(3000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        long start = System.nanoTime();
+        CompletableFuture<JsonNode> future = restClient.getAsync(restClient.buildURI("/rest/api/latest/search"),
+                new RequestOptions().deadline(200, TimeUnit.MILLISECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(10, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(exception.getCause() instanceof DeadlineExceededException);
+        assertTrue("elapsed " + elapsed + " ms", elapsed < 2000L);
+    }
+
+    @Test
+    public void testRetryIsNotScheduledPastTheDeadline() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-3", 503, "");
+        restClient.setRetryPolicy(new RetryPolicy() {
+            @Override
+            public long getWaitTimeMillis(HttpResponse response, int attempt) {
+                return 5000L;
+            }
+        });
+        restClient.setRequestOptions(new RequestOptions().deadline(2, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        RestException exception = assertThrows(RestException.class,
+                () -> restClient.get("/rest/api/latest/issue/TEST-3"));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // The retry would start after the deadline, so the error is reported at once
+        assertEquals(503, exception.getHttpStatusCode());
+        assertEquals(1, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+        assertTrue("elapsed " + elapsed + " ms", elapsed < 1000L);
+    }
+
+    @Test
+    public void testReadTimeoutOfACall() throws Exception {
+        server.handle("/rest/api/latest/search", exchange -> {
+            try {
+                Thread.sleep(2000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        // Timeouts are request configurations, which the legacy DefaultHttpClient ignores
+        RestClient pooledClient = new RestClient(new ApacheHttpTransport(new ConnectionPoolConfig()), null,
+                server.getUri(), null, false, new ExecutorConfig());
+        pooledClient.setRequestOptions(new RequestOptions().readTimeout(10, TimeUnit.SECONDS));
+
+        try {
+            long start = System.nanoTime();
+            assertThrows(SocketTimeoutException.class, () -> pooledClient.get(
+                    pooledClient.buildURI("/rest/api/latest/search"),
+                    new RequestOptions().readTimeout(200, TimeUnit.MILLISECONDS)));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue("elapsed " + elapsed + " ms", elapsed < 1500L);
+        } finally {
+            pooledClient.close();
+            pooledClient.getTransport().close();
+        }
+    }
+
+    @Test
+    public void testIdenticalConcurrentGetsShareOneRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json",
+                    "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        RequestCoalescer coalescer = new RequestCoalescer();
+        restClient.setRequestCoalescer(coalescer);
+
+        CompletableFuture<JsonNode> first = restClient.getAsync("/rest/api/latest/issue/TEST-3");
+        CompletableFuture<JsonNode> second = restClient.getAsync("/rest/api/latest/issue/TEST-3");
+        CompletableFuture<JsonNode> third = restClient.getAsync("/rest/api/latest/issue/TEST-3");
+        release.countDown();
+
+        ((ObjectNode) first.get(5, TimeUnit.SECONDS)).put("key", "CHANGED");
+        assertEquals("TEST-3", second.get(5, TimeUnit.SECONDS).get("key").asText());
+        assertEquals("TEST-3", third.get(5, TimeUnit.SECONDS).get("key").asText());
+        assertEquals(1, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+        assertEquals(3, coalescer.getRequestCount());
+        assertEquals(2, coalescer.getCoalescedCount());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void testAbandonedGetIsNotJoined() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(3000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StubServer.send(exchange, 200, "application/json",
+                    "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        RequestCoalescer coalescer = new RequestCoalescer();
+        restClient.setRequestCoalescer(coalescer);
+
+        CompletableFuture<JsonNode> abandoned = restClient.getAsync("/rest/api/latest/issue/TEST-3");
+        for (int i = 0; i < 50 && calls.get() == 0; i++) {
+            Thread.sleep(20L);
+        }
+        assertTrue(abandoned.cancel(false));
+        assertEquals(0, coalescer.getInFlightCount());
+
+        JsonNode result = restClient.getAsync("/rest/api/latest/issue/TEST-3").get(2, TimeUnit.SECONDS);
+
+        assertEquals("TEST-3", result.get("key").asText());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void testGetsOfDifferentUsersAreNotCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.handle("/rest/api/latest/issue/TEST-3", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json",
+                    "{\"key\":\"TEST-3\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        RequestCoalescer coalescer = new RequestCoalescer();
+        RestClient alice = new RestClient(new DefaultHttpClient(), new BasicCredentials("alice", "secret"),
+                server.getUri());
+        RestClient bob = new RestClient(new DefaultHttpClient(), new BasicCredentials("bob", "secret"),
+                server.getUri());
+        alice.setRequestCoalescer(coalescer);
+        bob.setRequestCoalescer(coalescer);
+        try {
+            CompletableFuture<JsonNode> first = alice.getAsync("/rest/api/latest/issue/TEST-3");
+            CompletableFuture<JsonNode> second = bob.getAsync("/rest/api/latest/issue/TEST-3");
+            release.countDown();
+
+            assertEquals("TEST-3", first.get(5, TimeUnit.SECONDS).get("key").asText());
+            assertEquals("TEST-3", second.get(5, TimeUnit.SECONDS).get("key").asText());
+            assertEquals(2, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+            assertEquals(0, coalescer.getCoalescedCount());
+        } finally {
+            alice.close();
+            bob.close();
+        }
+    }
+
+    @Test
+    public void testCancellingAbortsTheRequestInFlight() throws Exception {
+        server.handle("/rest/api/latest/search", exchange -> {
+            try {
+                Thread.sleep(3000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        server.respond("/rest/api/latest/issue/TEST-3", 200, "{\"key\":\"TEST-3\"}");
+
+        CompletableFuture<JsonNode> future = restClient.getAsync("/rest/api/latest/search");
+        for (int i = 0; i < 50 && server.getRequestCount("/rest/api/latest/search") == 0; i++) {
+            Thread.sleep(20L);
+        }
+        assertTrue(future.cancel(true));
+
+        // The client has a single connection, which the aborted request gave back
+        long start = System.nanoTime();
+        JsonNode result = restClient.get("/rest/api/latest/issue/TEST-3");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("TEST-3", result.get("key").asText());
+        assertTrue("elapsed " + elapsed + " ms", elapsed < 2000L);
+    }
+
+    @Test
+    public void testCancellingRemovesThePendingRetry() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-3", 503, "");
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        RestClient retryingClient = new RestClient(new DefaultHttpClient(), null, server.getUri(), null, false,
+                new ExecutorConfig().scheduler(scheduler));
+        retryingClient.setRetryPolicy(new RetryPolicy() {
+            @Override
+            public long getWaitTimeMillis(HttpResponse response, int attempt) {
+                return 5000L;
+            }
+        });
+        try {
+            CompletableFuture<JsonNode> future = retryingClient.getAsync("/rest/api/latest/issue/TEST-3");
+            for (int i = 0; i < 50 && scheduler.getQueue().isEmpty(); i++) {
+                Thread.sleep(20L);
+            }
+            assertEquals(1, scheduler.getQueue().size());
+
+            assertTrue(future.cancel(true));
+            assertTrue(scheduler.getQueue().isEmpty());
+            assertEquals(1, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+        } finally {
+            retryingClient.close();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClosingFailsThePendingRetry() throws Exception {
+        server.respond("/rest/api/latest/issue/TEST-3", 503, "");
+        RestClient retryingClient = new RestClient(new DefaultHttpClient(), server.getUri());
+        retryingClient.setRetryPolicy(new RetryPolicy() {
+            @Override
+            public long getWaitTimeMillis(HttpResponse response, int attempt) {
+                return 5000L;
+            }
+        });
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                retryingClient.get("/rest/api/latest/issue/TEST-3");
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+        for (int i = 0; i < 50 && server.getRequestCount("/rest/api/latest/issue/TEST-3") == 0; i++) {
+            Thread.sleep(20L);
+        }
+        Thread.sleep(100L);
+
+        retryingClient.close();
+        caller.join(2000L);
+
+        assertTrue("the blocked call did not return", !caller.isAlive());
+        assertTrue(String.valueOf(failure.get()), failure.get() instanceof IOException);
+        assertEquals(1, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() throws Exception {
+        server.respond("/rest/api/latest/search", 503, "");
+        CircuitBreaker breaker = new CircuitBreaker().window(2, 2);
+        restClient.setCircuitBreaker(breaker);
+
+        assertThrows(RestException.class, () -> restClient.get("/rest/api/latest/search"));
+        assertThrows(RestException.class, () -> restClient.get("/rest/api/latest/search"));
+        CircuitBreakerOpenException exception = assertThrows(CircuitBreakerOpenException.class,
+                () -> restClient.get("/rest/api/latest/search"));
+
+        assertEquals("127.0.0.1 /search", exception.getCircuit());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(server.getUri().resolve("/rest/api/2/search")));
+        assertEquals(2, server.getRequestCount("/rest/api/latest/search"));
+    }
+
+    @Test
+    public void testContextPathIsNotPartOfCircuitsAndTemplates() throws Exception {
+        server.respond("/jira/rest/api/latest/search", 200, "{}");
+        server.respond("/jira/rest/api/latest/issue/TEST-1", 200, "{}");
+        RestClient contextClient = new RestClient(new DefaultHttpClient(), server.getUri().resolve("/jira"));
+        CircuitBreaker breaker = new CircuitBreaker();
+        InMemoryRestMetrics metrics = new InMemoryRestMetrics();
+        contextClient.setCircuitBreaker(breaker);
+        contextClient.setMetrics(metrics);
+
+        try {
+            contextClient.get("/rest/api/latest/search");
+            contextClient.get("/rest/api/latest/issue/TEST-1");
+
+            // Each endpoint keeps its own circuit rather than sharing a "/jira" one
+            assertEquals(2, breaker.getStates().size());
+            assertTrue(breaker.getStates().containsKey("127.0.0.1 /search"));
+            assertTrue(breaker.getStates().containsKey("127.0.0.1 /issue"));
+            assertEquals(1, metrics.getEndpoint("GET", "/search").getAttemptCount());
+            assertEquals(1, metrics.getEndpoint("GET", "/issue/{key}").getAttemptCount());
+        } finally {
+            contextClient.close();
+        }
+    }
+
+    @Test
+    public void testSlowGetIsHedged() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        server.handle("/rest/api/latest/issue/TEST-4", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StubServer.send(exchange, 200, "application/json", "{\"key\":\"TEST-4\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        HedgingPolicy hedging = new HedgingPolicy().initialDelay(100L).maxHedgeRatio(1);
+        RestClient hedgingClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()),
+                server.getUri());
+        hedgingClient.setHedgingPolicy(hedging);
+
+        long start = System.nanoTime();
+        JsonNode result = hedgingClient.get("/rest/api/latest/issue/TEST-4");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        hedgingClient.close();
+
+        assertEquals("TEST-4", result.get("key").asText());
+        assertTrue("elapsed " + elapsed + " ms", elapsed < 4000L);
+        assertEquals(1L, hedging.getHedgeWinCount());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testRateLimiterPacesRequests() throws Exception {
+        server.respond("/rest/api/latest/myself", 200, "{}",
+                "X-RateLimit-Limit", "1",
+                "X-RateLimit-Remaining", "0",
+                "X-RateLimit-FillRate", "5",
+                "X-RateLimit-Interval-Seconds", "1");
+        RateLimiter limiter = new RateLimiter();
+        restClient.setRateLimiter(limiter);
+
+        restClient.get("/rest/api/latest/myself");
+        assertTrue(limiter.isLearned());
+
+        long start = System.nanoTime();
+        restClient.getAsync("/rest/api/latest/myself").get(10, TimeUnit.SECONDS);
+        restClient.getAsync("/rest/api/latest/myself").get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Remaining is 0 after each response, so both requests wait for a token at 5 per second
+        assertTrue("elapsed " + elapsed + " ms", elapsed >= 350L);
+        assertEquals(3, server.getRequestCount("/rest/api/latest/myself"));
+    }
+
+    @Test
+    public void testRateLimitPausesOtherRequests() throws Exception {
+        server.respond("/rest/api/latest/search", 429, "", "Retry-After", "1");
+        server.respond("/rest/api/latest/myself", 200, "{}");
+        restClient.setRateLimitGate(new RateLimitGate(0L, 0L));
+
+        assertThrows(RestException.class, () -> restClient.get("/rest/api/latest/search"));
+        assertEquals(1L, restClient.getRateLimitGate().getPauseCount());
+
+        restClient.getRateLimitGate().pause(300L);
+        long start = System.nanoTime();
+        restClient.get("/rest/api/latest/myself");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("elapsed " + elapsed + " ms", elapsed >= 250L);
+    }
+
+    @Test
+    public void testSaturatedPoolRejectsRequests() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        server.handle("/rest/api/latest/search", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        RestClient boundedClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()), null,
+                server.getUri(), null, false, new ExecutorConfig().maxThreads(1).queueCapacity(0));
+
+        try {
+            CompletableFuture<JsonNode> first = boundedClient.getAsync("/rest/api/latest/search");
+            CompletableFuture<JsonNode> second = boundedClient.getAsync("/rest/api/latest/search");
+
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> second.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof IOException);
+            assertEquals(1, boundedClient.getExecutorMetrics().getRejectedTasks());
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            boundedClient.close();
+        }
+    }
+
+    @Test
+    public void testCallerRunsNeverRunsARetryInTheScheduler() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        server.handle("/rest/api/latest/search", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        server.respond("/rest/api/latest/issue/TEST-3", 503, "");
+        RestClient boundedClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()), null,
+                server.getUri(), null, false, new ExecutorConfig().maxThreads(1).queueCapacity(0)
+                .queuePolicy(ExecutorConfig.QueuePolicy.CALLER_RUNS));
+        boundedClient.setRetryPolicy(new RetryPolicy() {
+            @Override
+            public long getWaitTimeMillis(HttpResponse response, int attempt) {
+                return 50L;
+            }
+        });
+
+        try {
+            CompletableFuture<JsonNode> first = boundedClient.getAsync("/rest/api/latest/search");
+
+            // The first attempt runs in this thread, its retry is not run by the scheduler but rejected
+            CompletableFuture<JsonNode> second = boundedClient.getAsync("/rest/api/latest/issue/TEST-3");
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> second.get(10, TimeUnit.SECONDS));
+            assertTrue(String.valueOf(exception.getCause()), exception.getCause() instanceof IOException);
+            assertEquals(1, server.getRequestCount("/rest/api/latest/issue/TEST-3"));
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            boundedClient.close();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadMode() throws Exception {
+        server.respond("/rest/api/latest/serverInfo", 200, "{\"version\":\"9.4.0\"}");
+        RestClient virtualClient = new RestClient(new DefaultHttpClient(new PoolingClientConnectionManager()), null,
+                server.getUri(), null, false, new ExecutorConfig().virtualThreads(true));
+
+        try {
+            JsonNode result = virtualClient.getAsync("/rest/api/latest/serverInfo").get(10, TimeUnit.SECONDS);
+
+            assertEquals("9.4.0", result.get("version").asText());
+            // Only the platform pool exposes a pool size, a thread-per-task executor has none
+            assertEquals(ExecutorConfig.isVirtualThreadSupported(),
+                    virtualClient.getExecutorMetrics().getPoolSize() == -1);
+        } finally {
+            virtualClient.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.rcarz.jiraclient;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RestMetricsTest {
+
+    @Test
+    public void testTemplateReplacesKeysAndIds() {
+        assertEquals("/issue/{key}", RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/2/issue/TEST-1")));
+        assertEquals("/issue/{key}/comment/{id}",
+                RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/latest/issue/TEST-1/comment/10010")));
+        assertEquals("/issue/createmeta/{key}/issuetypes/{id}",
+                RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/2/issue/createmeta/TEST/issuetypes/10001")));
+        assertEquals("/issueLink", RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/2/issueLink")));
+        assertEquals("/search", RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/2/search?jql=x")));
+        assertEquals("/", RestMetrics.templateOf(URI.create("https://jira.example.com/rest/api/2/")));
+    }
+
+    @Test
+    public void testTemplateUnderAContextPath() {
+        URI base = URI.create("https://jira.example.com/jira");
+
+        assertEquals("/issue/{key}",
+                RestMetrics.templateOf(base, URI.create("https://jira.example.com/jira/rest/api/2/issue/TEST-1")));
+        assertEquals("/search",
+                RestMetrics.templateOf(base, URI.create("https://jira.example.com/jira/rest/api/2/search?jql=x")));
+        // A path that only starts like the context path keeps its first segment
+        assertEquals("/jiraextra/{key}",
+                RestMetrics.templateOf(base, URI.create("https://jira.example.com/jiraextra/TEST-1")));
+    }
+
+    @Test
+    public void testLatencyPercentilesAreBucketBounds() {
+        InMemoryRestMetrics metrics = new InMemoryRestMetrics();
+        for (int i = 0; i < 90; i++) {
+            metrics.onAttempt("GET", "/search", 200, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        for (int i = 0; i < 9; i++) {
+            metrics.onAttempt("GET", "/search", 503, TimeUnit.MILLISECONDS.toNanos(400));
+        }
+        metrics.onAttempt("GET", "/search", RestMetrics.NO_RESPONSE, TimeUnit.SECONDS.toNanos(120));
+
+        InMemoryRestMetrics.Endpoint endpoint = metrics.getEndpoint("GET", "/search");
+        assertEquals(100, endpoint.getAttemptCount());
+        assertEquals(25, endpoint.getLatencyPercentileMillis(0.5));
+        assertEquals(500, endpoint.getLatencyPercentileMillis(0.99));
+        assertEquals(-1, endpoint.getLatencyPercentileMillis(1));
+        assertEquals(Long.valueOf(9), endpoint.getStatusCounts().get(503));
+        assertEquals(Long.valueOf(1), endpoint.getStatusCounts().get(RestMetrics.NO_RESPONSE));
+        assertNull(metrics.getEndpoint("POST", "/search"));
+    }
+}
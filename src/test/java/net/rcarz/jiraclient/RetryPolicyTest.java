@@ -0,0 +1,62 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    private static HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+    }
+
+    @Test
+    public void testIdempotentMethodsAreRetried() {
+        RetryPolicy policy = new RetryPolicy();
+
+        assertTrue(policy.shouldRetry(new HttpGet("/"), response(503), 0));
+        assertTrue(policy.shouldRetry(new HttpPut("/"), response(502), 0));
+        assertTrue(policy.shouldRetry(new HttpDelete("/"), new SocketTimeoutException(), 0));
+    }
+
+    @Test
+    public void testPostIsRetriedOnlyOnOptIn() throws Exception {
+        HttpPost post = new HttpPost("/");
+        post.setEntity(new StringEntity("{}"));
+
+        assertFalse(new RetryPolicy().shouldRetry(post, response(503), 0));
+        assertTrue(new RetryPolicy().retryPost(true).shouldRetry(post, response(503), 0));
+    }
+
+    @Test
+    public void testNonRepeatableBodyIsNotRetried() {
+        HttpPut put = new HttpPut("/");
+        put.setEntity(new InputStreamEntity(new ByteArrayInputStream(new byte[1])));
+
+        assertFalse(new RetryPolicy().shouldRetry(put, new IOException(), 0));
+    }
+
+    @Test
+    public void testLimits() {
+        RetryPolicy policy = new RetryPolicy().maxRetries(2).retryOnNetworkErrors(false);
+
+        assertFalse(policy.shouldRetry(new HttpGet("/"), response(500), 0));
+        assertFalse(policy.shouldRetry(new HttpGet("/"), response(503), 2));
+        assertFalse(policy.shouldRetry(new HttpGet("/"), new IOException(), 0));
+        assertTrue(policy.retryStatuses(500).shouldRetry(new HttpGet("/"), response(500), 1));
+    }
+}
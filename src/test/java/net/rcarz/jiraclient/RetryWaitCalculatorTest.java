@@ -71,4 +71,20 @@ public class RetryWaitCalculatorTest {
         assertTrue(exception.getMessage().contains(expectedMessage));
     }
 
+
+    @Test
+    public void testCalculateWaitTimeMillisWithDeadline() throws IOException {
+
+        BasicStatusLine statusLine = new BasicStatusLine( HttpVersion.HTTP_1_1,29,"Too Many Requests");
+        HttpResponse response = new BasicHttpResponse(statusLine);
+        response.addHeader("Retry-After", "6");
+
+        long waitTime = RetryWaitCalculator.calculateWaitTimeMillis(response, 0, -1L);
+        assertTrue(waitTime > 0 && waitTime <= 6000L);
+
+        waitTime = RetryWaitCalculator.calculateWaitTimeMillis(response, 0, 60000L);
+        assertTrue(waitTime > 0 && waitTime <= 6000L);
+
+        assertThrows(IOException.class, () -> RetryWaitCalculator.calculateWaitTimeMillis(response, 0, 0L));
+    }
 }
@@ -0,0 +1,89 @@
+package net.rcarz.jiraclient;
+
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ServerCapabilitiesTest {
+
+    @Test
+    public void testServerNine() {
+        ServerCapabilities capabilities = new ServerCapabilities("Server", Arrays.asList(9, 12, 1));
+
+        assertTrue(capabilities.isServer());
+        assertEquals(9, capabilities.getMajorVersion());
+        assertTrue(capabilities.supportsCreateMetaV9());
+        assertTrue(capabilities.supportsBulkCreate());
+        assertFalse(capabilities.supportsJqlSearch());
+        assertFalse(capabilities.supportsBulkChangelog());
+    }
+
+    @Test
+    public void testServerEight() {
+        ServerCapabilities capabilities = new ServerCapabilities("Server", Arrays.asList(8, 20, 0));
+
+        assertFalse(capabilities.supportsCreateMetaV9());
+    }
+
+    @Test
+    public void testCloud() {
+        ServerCapabilities capabilities = new ServerCapabilities("Cloud", Arrays.asList(1001, 0, 0));
+
+        assertTrue(capabilities.isCloud());
+        assertFalse(capabilities.supportsCreateMetaV9());
+        assertTrue(capabilities.supportsJqlSearch());
+        assertTrue(capabilities.supportsBulkChangelog());
+    }
+
+    @Test
+    public void testDetectedOncePerClient() throws Exception {
+        StubServer server = new StubServer();
+        RestClient restClient = new RestClient(new DefaultHttpClient(), server.getUri());
+        try {
+            server.respond(Resource.getBaseUri() + "serverInfo", 200,
+                    "{\"deploymentType\":\"Server\",\"versionNumbers\":[9,4,0]}");
+
+            ServerCapabilities first = ServerCapabilities.get(restClient);
+            ServerCapabilities second = ServerCapabilities.get(restClient);
+            assertSame(first, second);
+            assertEquals(1, server.getRequestCount(Resource.getBaseUri() + "serverInfo"));
+
+            ServerCapabilities refreshed = ServerCapabilities.refresh(restClient);
+            assertSame(refreshed, restClient.getServerCapabilities());
+            assertEquals(2, server.getRequestCount(Resource.getBaseUri() + "serverInfo"));
+        } finally {
+            restClient.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testRefreshBypassesTheMetadataCache() throws Exception {
+        StubServer server = new StubServer();
+        RestClient restClient = new RestClient(new DefaultHttpClient(), server.getUri());
+        try {
+            // The server was upgraded after its info was cached
+            AtomicInteger fetches = new AtomicInteger();
+            server.handle(Resource.getBaseUri() + "serverInfo", exchange -> StubServer.send(exchange, 200,
+                    "application/json", ("{\"deploymentType\":\"Server\",\"versionNumbers\":["
+                            + (fetches.incrementAndGet() == 1 ? 8 : 9) + ",4,0]}").getBytes(StandardCharsets.UTF_8)));
+            restClient.setMetadataCache(new MetadataCache());
+
+            assertEquals(8, ServerCapabilities.get(restClient).getMajorVersion());
+            assertEquals(9, ServerCapabilities.refresh(restClient).getMajorVersion());
+            assertEquals(9, ServerInfo.get(restClient).getVersionNumbers().get(0).intValue());
+            assertEquals(2, fetches.get());
+        } finally {
+            restClient.close();
+            server.close();
+        }
+    }
+}
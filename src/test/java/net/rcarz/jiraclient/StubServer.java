@@ -0,0 +1,95 @@
+package net.rcarz.jiraclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal HTTP server bound to the loopback interface, used to exercise the client end to end.
+ */
+public class StubServer implements Closeable {
+
+    private final HttpServer server;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    public StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI getUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public void handle(final String path, final HttpHandler handler) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                try {
+                    handler.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    public void respond(String path, int status, String body, String... headers) {
+        respond(path, status, "application/json;charset=UTF-8", body.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    public void respond(String path, final int status, final String contentType, final byte[] body,
+                        final String... headers) {
+        handle(path, exchange -> {
+            // An unread request body makes the server close the connection, which a pooled client would reuse
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // Discarded
+                }
+            }
+            send(exchange, status, contentType, body, headers);
+        });
+    }
+
+    public int getRequestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public static void send(HttpExchange exchange, int status, String contentType, byte[] body,
+                            String... headers) throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+        }
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        ((java.util.concurrent.ExecutorService) server.getExecutor()).shutdownNow();
+    }
+}